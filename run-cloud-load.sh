@@ -0,0 +1,13 @@
+#!/bin/bash
+# Cloud sync load test against an embedded Supabase REST stand-in (no project needed)
+
+JAR_FILE="target/stream-scorer-1.0.0.jar"
+
+if [ ! -f "$JAR_FILE" ]; then
+    echo "JAR file not found: $JAR_FILE"
+    echo "Building application..."
+    mvn clean package -DskipTests
+fi
+
+echo "Starting cloud sync load test..."
+java -cp "$JAR_FILE" org.ftc.scorer.CloudLoadTest "$@"
@@ -0,0 +1,14 @@
+#!/bin/bash
+# Score message codec benchmark: per-message time and allocation of the sync parser and serializer.
+# Runs from the compiled classes only; no JavaFX is needed.
+
+CLASSES_DIR="target/classes"
+
+if [ ! -f "$CLASSES_DIR/org/ftc/scorer/service/CodecBenchmark.class" ]; then
+    echo "Compiled classes not found in $CLASSES_DIR"
+    echo "Building application..."
+    mvn compile
+fi
+
+echo "Starting codec benchmark..."
+java -cp "$CLASSES_DIR" org.ftc.scorer.service.CodecBenchmark "$@"
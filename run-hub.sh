@@ -0,0 +1,14 @@
+#!/bin/bash
+# Headless sync hub: LAN sync server (and optional cloud event) without the UI.
+# Runs from the compiled classes only, so no JavaFX (or other dependency) is on the classpath.
+
+CLASSES_DIR="target/classes"
+
+if [ ! -f "$CLASSES_DIR/org/ftc/scorer/HeadlessHub.class" ]; then
+    echo "Compiled classes not found in $CLASSES_DIR"
+    echo "Building application..."
+    mvn compile
+fi
+
+echo "Starting FTC Stream Scorer sync hub..."
+java -Xms16m -Xmx64m -XX:+UseSerialGC -cp "$CLASSES_DIR" org.ftc.scorer.HeadlessHub "$@"
@@ -0,0 +1,302 @@
+package org.ftc.scorer;
+
+import org.ftc.scorer.model.Match;
+import org.ftc.scorer.model.ScoreSnapshot;
+import org.ftc.scorer.service.CloudSyncService;
+import org.ftc.scorer.service.LatencyHistogram;
+import org.ftc.scorer.service.LocalCloudServer;
+import org.ftc.scorer.service.NotificationExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test for cloud sync without a Supabase project: starts a LocalCloudServer,
+ * connects simulated hosts and scorers to it with real CloudSyncService instances,
+ * has the scorers change their alliance's score at a steady rate, and reports the
+ * request rate the backend sees, request and sync tick latency, and how long each
+ * change takes to show up on its event's host. With --realtime the devices also
+ * subscribe over the stand-in's Phoenix websocket, so changes are pushed to them
+ * (scorers get their own writes back as echoes), and --realtime-faults-s breaks the
+ * feed on a schedule so the fallback to polling and the rejoin run under load.
+ *
+ * Usage:
+ *   java -cp stream-scorer-1.0.0.jar org.ftc.scorer.CloudLoadTest [options]
+ *
+ * Options:
+ *   --events N               events, each with one host (default 5)
+ *   --scorers N              scorers per event, alternating red and blue (default 2)
+ *   --seconds N              length of the measured run (default 30)
+ *   --changes-per-second N   score changes per scorer per second (default 2)
+ *   --latency-ms N           delay the stand-in adds to every request (default 20)
+ *   --stamp-skew-ms N        stamp each write up to N ms in the past, in no particular
+ *                            order, like NOW() under row lock contention (default 0)
+ *   --realtime               receive changes over Realtime (default: polling only)
+ *   --realtime-faults-s N    every N seconds, alternately send phx_error on every
+ *                            channel and drop every socket (default 0, never)
+ *   --host-edits             each host also raises its red major fouls at the same rate,
+ *                            and counts rows (fetched or pushed) that set it back
+ *
+ * Exits with status 1 if a change never reached its host, or a row undid a host edit. With more than two
+ * scorers per event, scorers of the same alliance overwrite each other's columns
+ * (last write wins), which shows up here as changes that never arrive.
+ */
+public class CloudLoadTest {
+    private static final String PASSWORD = "loadtest";
+    private static final int WARMUP_MS = 2000;
+    private static final int SETTLE_MS = 10000;
+    
+    /**
+     * One simulated device
+     */
+    private static final class Device {
+        final Match match = new Match("", "");
+        final CloudSyncService cloud = new CloudSyncService(match);
+        
+        Device(String url, boolean realtime) {
+            cloud.setNotificationExecutor(NotificationExecutor.direct());
+            cloud.setCustomBackend(url, "local");
+            cloud.setRealtimeEnabled(realtime);
+            cloud.setJournalDirectory(null);   // Many devices in one process; nothing to survive
+        }
+    }
+    
+    /**
+     * Values written for one alliance of one event that its host has not shown yet
+     */
+    private static final class Alliance {
+        final boolean red;
+        final AtomicInteger nextValue = new AtomicInteger();
+        final ConcurrentSkipListMap<Integer, Long> pending = new ConcurrentSkipListMap<>(); // Value -> nanoTime written
+        
+        Alliance(boolean red) {
+            this.red = red;
+        }
+    }
+    
+    private static final LatencyHistogram convergence = new LatencyHistogram(1 << 20); // Guarded by itself
+    private static final AtomicInteger changes = new AtomicInteger();
+    private static final AtomicInteger hostEditsUndone = new AtomicInteger();
+    
+    public static void main(String[] args) throws Exception {
+        int events = 5;
+        int scorersPerEvent = 2;
+        int seconds = 30;
+        int changesPerSecond = 2;
+        int latencyMs = 20;
+        int stampSkewMs = 0;
+        boolean realtime = false;
+        int faultSeconds = 0;
+        boolean hostEdits = false;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--events": events = Integer.parseInt(args[++i]); break;
+                case "--scorers": scorersPerEvent = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                case "--changes-per-second": changesPerSecond = Integer.parseInt(args[++i]); break;
+                case "--latency-ms": latencyMs = Integer.parseInt(args[++i]); break;
+                case "--stamp-skew-ms": stampSkewMs = Integer.parseInt(args[++i]); break;
+                case "--realtime": realtime = true; break;
+                case "--realtime-faults-s": faultSeconds = Integer.parseInt(args[++i]); break;
+                case "--host-edits": hostEdits = true; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        
+        LocalCloudServer server = new LocalCloudServer();
+        server.start(0);
+        server.setLatencyMs(latencyMs);
+        server.setStampSkewMs(stampSkewMs);
+        String url = server.getUrl();
+        
+        List<Device> hosts = new ArrayList<>();
+        List<Device> scorers = new ArrayList<>();
+        List<Alliance> scorerAlliances = new ArrayList<>();   // Per scorer
+        List<Alliance> alliances = new ArrayList<>();         // Per event, red and blue
+        List<AtomicInteger> hostFouls = new ArrayList<>();    // Per host, last value it set
+        for (int e = 0; e < events; e++) {
+            String eventName = "LOAD_" + e;
+            Device host = new Device(url, realtime);
+            expectOk(host.cloud.createEvent(eventName, PASSWORD).join());
+            host.match.update(m -> m.setState(Match.MatchState.TELEOP)); // Fast cadence everywhere
+            hosts.add(host);
+            
+            Alliance red = new Alliance(true);
+            Alliance blue = new Alliance(false);
+            alliances.add(red);
+            alliances.add(blue);
+            AtomicInteger fouls = new AtomicInteger();
+            hostFouls.add(fouls);
+            host.cloud.setOnScoreUpdate(() -> {
+                ScoreSnapshot shown = host.match.getSnapshot();
+                converged(red, shown.getRed().getTeleopClassified());
+                converged(blue, shown.getBlue().getTeleopClassified());
+                if (shown.getRed().getMajorFouls() < fouls.get()) {
+                    hostEditsUndone.incrementAndGet(); // An older row overwrote the host's own edit
+                }
+            });
+            
+            for (int s = 0; s < scorersPerEvent; s++) {
+                Device scorer = new Device(url, realtime);
+                boolean isRed = s % 2 == 0;
+                expectOk(scorer.cloud.joinEvent(eventName, PASSWORD, isRed ? "RED" : "BLUE").join());
+                scorers.add(scorer);
+                scorerAlliances.add(isRed ? red : blue);
+            }
+        }
+        System.out.println("Connected " + hosts.size() + " hosts and " + scorers.size() + " scorers to " + url +
+                           " (" + latencyMs + " ms added per request, updated_at skewed up to " + stampSkewMs + " ms, " +
+                           (realtime ? "Realtime on" + (faultSeconds > 0 ? ", broken every " + faultSeconds + " s" : "") : "polling only") + ")");
+        
+        Thread.sleep(WARMUP_MS);
+        server.resetStats();
+        
+        // Every scorer bumps its alliance's teleop count changesPerSecond times a second
+        long periodNanos = 1_000_000_000L / Math.max(1, changesPerSecond);
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        long faultNanos = faultSeconds * 1_000_000_000L;
+        long nextFault = start + faultNanos;
+        int faults = 0;
+        for (long next = start; next < end; next += periodNanos) {
+            if (realtime && faultNanos > 0 && next - nextFault >= 0) {
+                nextFault += faultNanos;
+                if (faults++ % 2 == 0) {
+                    server.failRealtimeChannels();
+                } else {
+                    server.dropRealtimeConnections();
+                }
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+            }
+            for (int s = 0; s < scorers.size(); s++) {
+                Device scorer = scorers.get(s);
+                Alliance alliance = scorerAlliances.get(s);
+                int value = alliance.nextValue.incrementAndGet();
+                alliance.pending.put(value, System.nanoTime());
+                changes.incrementAndGet();
+                scorer.match.update(m -> (alliance.red ? m.getRedScore() : m.getBlueScore()).setTeleopClassified(value));
+                scorer.cloud.sendScoreUpdate();
+            }
+            for (int h = 0; hostEdits && h < hosts.size(); h++) {
+                Device host = hosts.get(h);
+                AtomicInteger fouls = hostFouls.get(h);
+                int value = fouls.get() + 1;
+                host.match.update(m -> m.getRedScore().setMajorFouls(value));
+                fouls.set(value); // After the update, so the check never sees a value not set yet
+                host.cloud.sendScoreUpdate();
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long requests = server.getRequestCount();
+        Map<String, Long> byRoute = server.getRequestCounts();
+        double serviceP50 = server.getServiceMillis(50);
+        double serviceP99 = server.getServiceMillis(99);
+        
+        // Let the last changes arrive
+        long settleEnd = System.nanoTime() + SETTLE_MS * 1_000_000L;
+        while (System.nanoTime() < settleEnd && pendingCount(alliances) > 0) {
+            Thread.sleep(50);
+        }
+        int lost = pendingCount(alliances);
+        
+        System.out.printf("Requests: %d in %.1f s (%.1f/s) %s%n", requests, elapsed, requests / elapsed, byRoute);
+        System.out.printf("Request time at the backend: p50 %.1f ms, p99 %.1f ms%n", serviceP50, serviceP99);
+        System.out.printf("Sync tick, hosts:   %s%n", tickSummary(hosts));
+        System.out.printf("Sync tick, scorers: %s%n", tickSummary(scorers));
+        synchronized (convergence) {
+            System.out.printf("Convergence (scorer change to host model): %d changes, p50 %.0f ms, p90 %.0f ms, p99 %.0f ms, max %.0f ms, %d never arrived%n",
+                              changes.get(), convergence.percentileMicros(50) / 1000.0, convergence.percentileMicros(90) / 1000.0,
+                              convergence.percentileMicros(99) / 1000.0, convergence.percentileMicros(100) / 1000.0, lost);
+        }
+        
+        int seen = 0;
+        for (Device host : hosts) {
+            seen += host.cloud.getConnectedDevices();
+        }
+        System.out.println("Presence: hosts count " + seen + " of " + scorers.size() + " scorers");
+        
+        long fullFetches = 0;
+        for (Device host : hosts) {
+            fullFetches += host.cloud.getFullFetches();
+        }
+        System.out.println("Host fetches without the updated_at filter: " + fullFetches);
+        
+        if (hostEdits) {
+            System.out.println("Host edits undone by an older row: " + hostEditsUndone.get());
+        }
+        
+        if (realtime) {
+            int live = 0;
+            long pushed = 0;
+            for (Device host : hosts) {
+                live += host.cloud.isRealtimeLive() ? 1 : 0;
+                pushed += host.cloud.getRealtimeChangeCount();
+            }
+            System.out.println("Realtime: " + server.getRealtimeJoins() + " joins, " + server.getRealtimeChangesSent() +
+                               " changes pushed, " + pushed + " received by hosts, " + faults + " faults, " +
+                               live + " of " + hosts.size() + " hosts live at the end");
+        }
+        
+        for (Device device : scorers) device.cloud.shutdown();
+        for (Device device : hosts) device.cloud.shutdown();
+        server.stop();
+        System.exit(lost > 0 || hostEditsUndone.get() > 0 ? 1 : 0);
+    }
+    
+    /**
+     * The host now shows value: that change and every older one have arrived
+     */
+    private static void converged(Alliance alliance, int value) {
+        long now = System.nanoTime();
+        Map<Integer, Long> arrived = alliance.pending.headMap(value, true);
+        synchronized (convergence) {
+            for (long written : arrived.values()) {
+                convergence.recordMicros((now - written) / 1000);
+            }
+        }
+        arrived.clear();
+    }
+    
+    private static int pendingCount(List<Alliance> alliances) {
+        int pending = 0;
+        for (Alliance alliance : alliances) {
+            pending += alliance.pending.size();
+        }
+        return pending;
+    }
+    
+    /**
+     * Median of the devices' p50 tick times and the worst p99
+     */
+    private static String tickSummary(List<Device> devices) {
+        double[] medians = new double[devices.size()];
+        double worst = 0;
+        long skipped = 0;
+        for (int i = 0; i < devices.size(); i++) {
+            CloudSyncService cloud = devices.get(i).cloud;
+            medians[i] = cloud.getTickMillis(50);
+            worst = Math.max(worst, cloud.getTickMillis(99));
+            skipped += cloud.getSkippedTicks();
+        }
+        Arrays.sort(medians);
+        double median = medians.length > 0 ? medians[medians.length / 2] : 0;
+        return String.format("p50 %.1f ms, worst p99 %.1f ms, %d ticks skipped while one was running", median, worst, skipped);
+    }
+    
+    private static void expectOk(String result) {
+        if (!result.startsWith("✓")) {
+            System.err.println("Setup failed: " + result);
+            System.exit(2);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.ftc.scorer;
+
+import org.ftc.scorer.model.Match;
+import org.ftc.scorer.service.CloudSyncService;
+import org.ftc.scorer.service.SyncServer;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Headless sync hub for an always-on box (e.g. a small Linux machine at the venue).
+ * Runs the LAN SyncServer, and optionally hosts a cloud event, without JavaFX, the
+ * webcam, AudioService or VideoService - none of them need to be on the classpath.
+ *
+ * Usage:
+ *   java -Xmx64m -cp target/classes org.ftc.scorer.HeadlessHub [options]
+ *
+ * Options:
+ *   --port N             LAN sync port (default 5555)
+ *   --max-clients N      refuse connections past N clients (default 100, 0 for no limit)
+ *   --multicast          also publish frames to the default multicast group
+ *   --event NAME         host this cloud event (needs --password)
+ *   --password PW        password for --event
+ *   --stats-seconds N    print clients and heap/RSS every N seconds (default 30)
+ *
+ * Cloud changes are rebroadcast to LAN clients; LAN changes reach the cloud on the
+ * next sync tick, the same way they do from the desktop app.
+ */
+public class HeadlessHub {
+    private static final int DEFAULT_PORT = 5555;
+    private static final int DEFAULT_MAX_CLIENTS = 100;
+    private static final int DEFAULT_STATS_SECONDS = 30;
+    
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        int maxClients = DEFAULT_MAX_CLIENTS;
+        int statsSeconds = DEFAULT_STATS_SECONDS;
+        boolean multicast = false;
+        String eventName = null;
+        String password = null;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--max-clients": maxClients = Integer.parseInt(args[++i]); break;
+                case "--stats-seconds": statsSeconds = Integer.parseInt(args[++i]); break;
+                case "--multicast": multicast = true; break;
+                case "--event": eventName = args[++i]; break;
+                case "--password": password = args[++i]; break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        
+        Match match = new Match("", "");
+        
+        // No toolkit here - services default to NotificationExecutor.direct(), so
+        // callbacks run on the service threads
+        SyncServer server = new SyncServer(match);
+        server.setMaxClients(maxClients);
+        if (!server.start(port)) {
+            System.exit(1);
+        }
+        if (multicast) {
+            server.startMulticast(SyncServer.DEFAULT_MULTICAST_GROUP, SyncServer.DEFAULT_MULTICAST_PORT, null);
+        }
+        
+        CloudSyncService cloud = null;
+        if (eventName != null) {
+            cloud = new CloudSyncService(match);
+            cloud.setOnScoreUpdate(server::broadcastScores);
+            System.out.println(cloud.createEvent(eventName, password).join());
+        }
+        
+        CloudSyncService cloudService = cloud;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("Hub shutting down. " + footprint(server));
+            if (cloudService != null) {
+                cloudService.shutdown();
+            }
+            server.stop();
+        }, "HubShutdown"));
+        
+        System.out.println("Headless hub serving up to " + (maxClients > 0 ? maxClients : "unlimited") +
+                           " clients at " + server.getServerAddress());
+        while (true) {
+            Thread.sleep(Math.max(1, statsSeconds) * 1000L);
+            System.out.println(footprint(server) + (cloudService != null ? cloudStats(cloudService) : ""));
+        }
+    }
+    
+    /**
+     * Cloud sync tick timings, appended to the status line when hosting an event
+     */
+    static String cloudStats(CloudSyncService cloud) {
+        return String.format(" | Cloud tick: p50 %.0f ms, p99 %.0f ms, skipped %d",
+                             cloud.getTickMillis(50), cloud.getTickMillis(99), cloud.getSkippedTicks());
+    }
+    
+    /**
+     * One status line: clients, current heap use and resident set size
+     */
+    static String footprint(SyncServer server) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long rss = residentSetBytes();
+        return "Clients: " + server.getClientCount() +
+               " | Rejected: " + server.getRejectedClients() +
+               " | Heap: " + mb(heap.getUsed()) + "/" + mb(heap.getCommitted()) +
+               " MB (max " + (heap.getMax() > 0 ? mb(heap.getMax()) : "?") + ")" +
+               " | RSS: " + (rss >= 0 ? mb(rss) + " MB" : "n/a") +
+               " | Threads: " + Thread.activeCount();
+    }
+    
+    /**
+     * Resident set size from /proc/self/status, or -1 where that is not available
+     */
+    private static long residentSetBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    String[] parts = line.trim().split("\\s+");
+                    return Long.parseLong(parts[1]) * 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux
+        }
+        return -1;
+    }
+    
+    private static long mb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
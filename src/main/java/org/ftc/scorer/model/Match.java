@@ -1,9 +1,18 @@
 package org.ftc.scorer.model;
 
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 /**
  * Represents a single FTC DECODE scoring session
  * In traditional matches, alliances have 2 teams each (4 teams total)
  * In solo mode, only one team plays
+ * 
+ * Threading: scores are changed from the FX thread, sync server threads and the
+ * cloud sync scheduler. All score, team and state changes go through update(),
+ * which serializes writers and publishes a new immutable ScoreSnapshot; the setters
+ * here do so themselves, and inside an update() they join its single commit.
+ * Readers on other threads should use getSnapshot() rather than reading fields.
  */
 public class Match {
     // Red Alliance (2 teams)
@@ -19,6 +28,8 @@ public class Match {
     private MatchState state;
     private MatchType matchType;
     private long startTime;
+    private final AtomicReference<ScoreSnapshot> snapshot = new AtomicReference<>();
+    private int updateDepth = 0; // Guarded by this; setters called inside update() commit with it
     
     public Match(String redTeam1, String blueTeam1) {
         this(redTeam1, "", blueTeam1, "", MatchType.TRADITIONAL_MATCH);
@@ -34,6 +45,42 @@ public class Match {
         this.blueScore = new DecodeScore();
         this.state = MatchState.NOT_STARTED;
         this.startTime = 0;
+        this.snapshot.set(new ScoreSnapshot(0, this));
+    }
+    
+    /**
+     * Latest committed scores. Lock-free; the returned object never changes.
+     */
+    public ScoreSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+    
+    /**
+     * Apply a change to the scores or state and publish the result.
+     * This is the single write path - concurrent writers are serialized here.
+     * @return the snapshot after the change
+     */
+    public synchronized ScoreSnapshot update(Consumer<Match> change) {
+        updateDepth++;
+        try {
+            change.accept(this);
+        } finally {
+            updateDepth--;
+        }
+        return updateDepth == 0 ? commit() : snapshot.get();
+    }
+    
+    /**
+     * Publish a new snapshot if anything changed since the last one
+     */
+    private ScoreSnapshot commit() {
+        ScoreSnapshot previous = snapshot.get();
+        ScoreSnapshot next = new ScoreSnapshot(previous.getVersion() + 1, this);
+        if (next.sameContentAs(previous)) {
+            return previous;
+        }
+        snapshot.set(next);
+        return next;
     }
     
     // Red Alliance Team 1
@@ -42,7 +89,7 @@ public class Match {
     }
     
     public void setRedTeam1Number(String redTeam1Number) {
-        this.redTeam1Number = redTeam1Number;
+        update(m -> m.redTeam1Number = redTeam1Number);
     }
     
     // Red Alliance Team 2
@@ -51,7 +98,7 @@ public class Match {
     }
     
     public void setRedTeam2Number(String redTeam2Number) {
-        this.redTeam2Number = redTeam2Number;
+        update(m -> m.redTeam2Number = redTeam2Number);
     }
     
     // Blue Alliance Team 1
@@ -60,7 +107,7 @@ public class Match {
     }
     
     public void setBlueTeam1Number(String blueTeam1Number) {
-        this.blueTeam1Number = blueTeam1Number;
+        update(m -> m.blueTeam1Number = blueTeam1Number);
     }
     
     // Blue Alliance Team 2
@@ -69,7 +116,7 @@ public class Match {
     }
     
     public void setBlueTeam2Number(String blueTeam2Number) {
-        this.blueTeam2Number = blueTeam2Number;
+        update(m -> m.blueTeam2Number = blueTeam2Number);
     }
     
     // Legacy methods for compatibility (deprecated)
@@ -86,7 +133,7 @@ public class Match {
      */
     @Deprecated
     public void setRedTeamNumber(String redTeamNumber) {
-        this.redTeam1Number = redTeamNumber;
+        setRedTeam1Number(redTeamNumber);
     }
     
     /**
@@ -102,7 +149,7 @@ public class Match {
      */
     @Deprecated
     public void setBlueTeamNumber(String blueTeamNumber) {
-        this.blueTeam1Number = blueTeamNumber;
+        setBlueTeam1Number(blueTeamNumber);
     }
     
     /**
@@ -129,10 +176,16 @@ public class Match {
         return team1 + " + " + team2;
     }
     
+    /**
+     * Live red score. Change it only inside update() so the change is published.
+     */
     public DecodeScore getRedScore() {
         return redScore;
     }
     
+    /**
+     * Live blue score. Change it only inside update() so the change is published.
+     */
     public DecodeScore getBlueScore() {
         return blueScore;
     }
@@ -142,7 +195,7 @@ public class Match {
     }
     
     public void setState(MatchState state) {
-        this.state = state;
+        update(m -> m.state = state);
     }
     
     public long getStartTime() {
@@ -150,7 +203,7 @@ public class Match {
     }
     
     public void setStartTime(long startTime) {
-        this.startTime = startTime;
+        update(m -> m.startTime = startTime);
     }
     
     public MatchType getMatchType() {
@@ -158,7 +211,7 @@ public class Match {
     }
     
     public void setMatchType(MatchType matchType) {
-        this.matchType = matchType;
+        update(m -> m.matchType = matchType);
     }
     
     public boolean isSingleTeamMode() {
@@ -170,8 +223,10 @@ public class Match {
      */
     public void randomizeMotif() {
         DecodeScore.MotifType randomMotif = DecodeScore.MotifType.randomize();
-        redScore.setMotif(randomMotif);
-        blueScore.setMotif(randomMotif);
+        update(m -> {
+            redScore.setMotif(randomMotif);
+            blueScore.setMotif(randomMotif);
+        });
     }
     
     /**
@@ -197,10 +252,12 @@ public class Match {
     }
     
     public void reset() {
-        redScore.reset();
-        blueScore.reset();
-        state = MatchState.NOT_STARTED;
-        startTime = 0;
+        update(m -> {
+            redScore.reset();
+            blueScore.reset();
+            state = MatchState.NOT_STARTED;
+            startTime = 0;
+        });
     }
     
     public enum MatchState {
@@ -0,0 +1,129 @@
+package org.ftc.scorer.model;
+
+/**
+ * The individually synced fields of a DecodeScore, in wire order.
+ * Every field is represented as an int so a whole alliance fits in an int[]:
+ * counters as-is, LEAVE flags as 0/1 and BASE status as the enum ordinal.
+ * Each field knows its LAN protocol name and its cloud column name.
+ */
+public enum ScoreField {
+    AUTO_CLASSIFIED("autoClassified", "auto_classified", Kind.COUNTER),
+    AUTO_OVERFLOW("autoOverflow", "auto_overflow", Kind.COUNTER),
+    AUTO_PATTERN_MATCHES("autoPatternMatches", "auto_pattern", Kind.COUNTER),
+    TELEOP_CLASSIFIED("teleopClassified", "teleop_classified", Kind.COUNTER),
+    TELEOP_OVERFLOW("teleopOverflow", "teleop_overflow", Kind.COUNTER),
+    TELEOP_DEPOT("teleopDepot", "teleop_depot", Kind.COUNTER),
+    TELEOP_PATTERN_MATCHES("teleopPatternMatches", "teleop_pattern", Kind.COUNTER),
+    ROBOT1_LEAVE("robot1Leave", "robot1_leave", Kind.FLAG),
+    ROBOT2_LEAVE("robot2Leave", "robot2_leave", Kind.FLAG),
+    ROBOT1_BASE("robot1Base", "robot1_base", Kind.BASE),
+    ROBOT2_BASE("robot2Base", "robot2_base", Kind.BASE),
+    MAJOR_FOULS("majorFouls", "major_fouls", Kind.COUNTER),
+    MINOR_FOULS("minorFouls", "minor_fouls", Kind.COUNTER);
+    
+    /** Shared copy of values() - do not modify */
+    public static final ScoreField[] ALL = values();
+    public static final int COUNT = ALL.length;
+    
+    private static final DecodeScore.BaseStatus[] BASE_STATUSES = DecodeScore.BaseStatus.values();
+    
+    private final String jsonName;
+    private final String columnName;
+    private final Kind kind;
+    
+    ScoreField(String jsonName, String columnName, Kind kind) {
+        this.jsonName = jsonName;
+        this.columnName = columnName;
+        this.kind = kind;
+    }
+    
+    /**
+     * Field name used by the LAN sync protocol (camelCase)
+     */
+    public String getJsonName() {
+        return jsonName;
+    }
+    
+    /**
+     * Cloud events column without the alliance prefix (snake_case, e.g. "teleop_pattern")
+     */
+    public String getColumnName() {
+        return columnName;
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+    
+    public int get(DecodeScore score) {
+        switch (this) {
+            case AUTO_CLASSIFIED: return score.getAutoClassified();
+            case AUTO_OVERFLOW: return score.getAutoOverflow();
+            case AUTO_PATTERN_MATCHES: return score.getAutoPatternMatches();
+            case TELEOP_CLASSIFIED: return score.getTeleopClassified();
+            case TELEOP_OVERFLOW: return score.getTeleopOverflow();
+            case TELEOP_DEPOT: return score.getTeleopDepot();
+            case TELEOP_PATTERN_MATCHES: return score.getTeleopPatternMatches();
+            case ROBOT1_LEAVE: return score.isRobot1Leave() ? 1 : 0;
+            case ROBOT2_LEAVE: return score.isRobot2Leave() ? 1 : 0;
+            case ROBOT1_BASE: return score.getRobot1Base().ordinal();
+            case ROBOT2_BASE: return score.getRobot2Base().ordinal();
+            case MAJOR_FOULS: return score.getMajorFouls();
+            case MINOR_FOULS: return score.getMinorFouls();
+            default: throw new IllegalStateException("Unknown field " + this);
+        }
+    }
+    
+    public void set(DecodeScore score, int value) {
+        switch (this) {
+            case AUTO_CLASSIFIED: score.setAutoClassified(value); break;
+            case AUTO_OVERFLOW: score.setAutoOverflow(value); break;
+            case AUTO_PATTERN_MATCHES: score.setAutoPatternMatches(value); break;
+            case TELEOP_CLASSIFIED: score.setTeleopClassified(value); break;
+            case TELEOP_OVERFLOW: score.setTeleopOverflow(value); break;
+            case TELEOP_DEPOT: score.setTeleopDepot(value); break;
+            case TELEOP_PATTERN_MATCHES: score.setTeleopPatternMatches(value); break;
+            case ROBOT1_LEAVE: score.setRobot1Leave(value != 0); break;
+            case ROBOT2_LEAVE: score.setRobot2Leave(value != 0); break;
+            case ROBOT1_BASE: score.setRobot1Base(toBaseStatus(value)); break;
+            case ROBOT2_BASE: score.setRobot2Base(toBaseStatus(value)); break;
+            case MAJOR_FOULS: score.setMajorFouls(value); break;
+            case MINOR_FOULS: score.setMinorFouls(value); break;
+            default: throw new IllegalStateException("Unknown field " + this);
+        }
+    }
+    
+    /**
+     * Copy all fields of a score into a new array indexed by ordinal
+     */
+    public static int[] capture(DecodeScore score) {
+        int[] values = new int[COUNT];
+        for (ScoreField field : ALL) {
+            values[field.ordinal()] = field.get(score);
+        }
+        return values;
+    }
+    
+    /**
+     * Look up a field by its protocol name
+     * @return the field, or null if the name is unknown
+     */
+    public static ScoreField fromJsonName(String jsonName) {
+        for (ScoreField field : ALL) {
+            if (field.jsonName.equals(jsonName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+    
+    private static DecodeScore.BaseStatus toBaseStatus(int ordinal) {
+        return ordinal >= 0 && ordinal < BASE_STATUSES.length ? BASE_STATUSES[ordinal] : DecodeScore.BaseStatus.NOT_IN_BASE;
+    }
+    
+    public enum Kind {
+        COUNTER, // Non-negative count
+        FLAG,    // Boolean stored as 0/1
+        BASE     // BaseStatus ordinal
+    }
+}
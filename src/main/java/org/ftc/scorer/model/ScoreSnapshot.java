@@ -0,0 +1,165 @@
+package org.ftc.scorer.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Immutable view of a Match's scores, teams and state at one point in time.
+ *
+ * Match publishes a new snapshot every time a change is committed, so a reader
+ * that grabs one snapshot sees totals, breakdowns and state that all belong
+ * together - no locks and no allocation on the read side. The version grows by
+ * one per published change, so pollers can skip work when nothing moved.
+ */
+public final class ScoreSnapshot {
+    private final long version;
+    private final Match.MatchState state;
+    private final Match.MatchType matchType;
+    private final long startTime;
+    private final String redTeam1;
+    private final String redTeam2;
+    private final String blueTeam1;
+    private final String blueTeam2;
+    private final AllianceScore red;
+    private final AllianceScore blue;
+    private final int redTotal;
+    private final int blueTotal;
+    
+    ScoreSnapshot(long version, Match match) {
+        this.version = version;
+        this.state = match.getState();
+        this.matchType = match.getMatchType();
+        this.startTime = match.getStartTime();
+        this.redTeam1 = match.getRedTeam1Number();
+        this.redTeam2 = match.getRedTeam2Number();
+        this.blueTeam1 = match.getBlueTeam1Number();
+        this.blueTeam2 = match.getBlueTeam2Number();
+        this.red = new AllianceScore(match.getRedScore());
+        this.blue = new AllianceScore(match.getBlueScore());
+        this.redTotal = match.getRedTotalScore();
+        this.blueTotal = match.getBlueTotalScore();
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public Match.MatchState getState() {
+        return state;
+    }
+    
+    public Match.MatchType getMatchType() {
+        return matchType;
+    }
+    
+    public long getStartTime() {
+        return startTime;
+    }
+    
+    public String getRedTeam1Number() {
+        return redTeam1;
+    }
+    
+    public String getRedTeam2Number() {
+        return redTeam2;
+    }
+    
+    public String getBlueTeam1Number() {
+        return blueTeam1;
+    }
+    
+    public String getBlueTeam2Number() {
+        return blueTeam2;
+    }
+    
+    public AllianceScore getRed() {
+        return red;
+    }
+    
+    public AllianceScore getBlue() {
+        return blue;
+    }
+    
+    /**
+     * Red total including penalty points from blue fouls
+     */
+    public int getRedTotal() {
+        return redTotal;
+    }
+    
+    /**
+     * Blue total including penalty points from red fouls
+     */
+    public int getBlueTotal() {
+        return blueTotal;
+    }
+    
+    /**
+     * True if both snapshots hold the same scores, teams and state, regardless of version
+     */
+    boolean sameContentAs(ScoreSnapshot other) {
+        return other != null && state == other.state && matchType == other.matchType && startTime == other.startTime
+            && Objects.equals(redTeam1, other.redTeam1) && Objects.equals(redTeam2, other.redTeam2)
+            && Objects.equals(blueTeam1, other.blueTeam1) && Objects.equals(blueTeam2, other.blueTeam2)
+            && red.sameAs(other.red) && blue.sameAs(other.blue);
+    }
+    
+    /**
+     * One alliance's fields, with the derived point values computed once by DecodeScore
+     */
+    public static final class AllianceScore {
+        private static final DecodeScore.BaseStatus[] BASE_STATUSES = DecodeScore.BaseStatus.values();
+        
+        private final int[] values;
+        private final DecodeScore.MotifType motif;
+        private final int matchPoints;
+        private final int basePoints;
+        private final int movementPoints;
+        
+        private AllianceScore(DecodeScore score) {
+            this.values = ScoreField.capture(score);
+            this.motif = score.getMotif();
+            this.matchPoints = score.calculateTotalScore();
+            this.basePoints = score.getBasePoints();
+            this.movementPoints = score.getMovementPoints();
+        }
+        
+        public int get(ScoreField field) {
+            return values[field.ordinal()];
+        }
+        
+        /**
+         * Copy of all field values indexed by ScoreField ordinal
+         */
+        public int[] toArray() {
+            return values.clone();
+        }
+        
+        public DecodeScore.MotifType getMotif() { return motif; }
+        
+        public boolean isRobot1Leave() { return get(ScoreField.ROBOT1_LEAVE) != 0; }
+        public boolean isRobot2Leave() { return get(ScoreField.ROBOT2_LEAVE) != 0; }
+        public int getAutoClassified() { return get(ScoreField.AUTO_CLASSIFIED); }
+        public int getAutoOverflow() { return get(ScoreField.AUTO_OVERFLOW); }
+        public int getAutoPatternMatches() { return get(ScoreField.AUTO_PATTERN_MATCHES); }
+        public int getTeleopClassified() { return get(ScoreField.TELEOP_CLASSIFIED); }
+        public int getTeleopOverflow() { return get(ScoreField.TELEOP_OVERFLOW); }
+        public int getTeleopDepot() { return get(ScoreField.TELEOP_DEPOT); }
+        public int getTeleopPatternMatches() { return get(ScoreField.TELEOP_PATTERN_MATCHES); }
+        public DecodeScore.BaseStatus getRobot1Base() { return BASE_STATUSES[get(ScoreField.ROBOT1_BASE)]; }
+        public DecodeScore.BaseStatus getRobot2Base() { return BASE_STATUSES[get(ScoreField.ROBOT2_BASE)]; }
+        public int getMajorFouls() { return get(ScoreField.MAJOR_FOULS); }
+        public int getMinorFouls() { return get(ScoreField.MINOR_FOULS); }
+        
+        /**
+         * MATCH points without opponent penalties (DecodeScore.calculateTotalScore)
+         */
+        public int getMatchPoints() { return matchPoints; }
+        public int getBasePoints() { return basePoints; }
+        public int getMovementPoints() { return movementPoints; }
+        
+        private boolean sameAs(AllianceScore other) {
+            return motif == other.motif && Arrays.equals(values, other.values);
+        }
+    }
+}
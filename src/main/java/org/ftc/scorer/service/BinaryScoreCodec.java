@@ -0,0 +1,206 @@
+package org.ftc.scorer.service;
+
+import org.ftc.scorer.model.ScoreField;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of score frames for the LAN sync protocol ("bin1").
+ * Clients opt in during the ASSIGN handshake; everything else stays JSON.
+ *
+ * Frames can share a stream with newline-terminated JSON because they start with
+ * MARKER, a byte that never begins a JSON line:
+ *
+ *   MARKER (1) | payload length (1) | payload
+ *
+ * Payload, version 1:
+ *   header (1)    high nibble = VERSION, low nibble = KIND_SNAPSHOT or KIND_DELTA
+ *   seq           unsigned varint
+ *   snapshot:     red alliance, blue alliance
+ *   delta:        alliance mask (1: bit 0 red, bit 1 blue), then for each present
+ *                 alliance a varint mask of changed ScoreField ordinals followed by
+ *                 the changed values
+ *
+ * An alliance is written as varints for its COUNTER fields in ScoreField order,
+ * then one packed byte when any FLAG or BASE field is included:
+ *   bit 0 robot1Leave, bit 1 robot2Leave, bits 2-3 robot1Base, bits 4-5 robot2Base
+ *
+ * A full two-alliance snapshot with typical match values is about 24 bytes,
+ * compared to roughly 600 for the JSON SCORE_UPDATE.
+ */
+final class BinaryScoreCodec {
+    static final String NAME = "bin1";        // Codec name used in the ASSIGN handshake
+    static final byte MARKER = (byte) 0xB1;   // UTF-8 continuation byte - never starts a JSON line
+    static final int VERSION = 1;
+    static final int KIND_SNAPSHOT = 1;
+    static final int KIND_DELTA = 2;
+    static final int MAX_PAYLOAD = 255;
+    
+    private static final int ALL_FIELDS = (1 << ScoreField.COUNT) - 1;
+    private static final int PACKED_FIELDS =
+        bit(ScoreField.ROBOT1_LEAVE) | bit(ScoreField.ROBOT2_LEAVE) |
+        bit(ScoreField.ROBOT1_BASE) | bit(ScoreField.ROBOT2_BASE);
+    
+    private BinaryScoreCodec() {
+        // Utility class - no instantiation
+    }
+    
+    /**
+     * Full state of both alliances
+     */
+    static ByteBuffer encodeSnapshot(long seq, int[] red, int[] blue) {
+        ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD);
+        payload.put((byte) (VERSION << 4 | KIND_SNAPSHOT));
+        putVarLong(payload, seq);
+        putAlliance(payload, red, ALL_FIELDS);
+        putAlliance(payload, blue, ALL_FIELDS);
+        return frame(payload);
+    }
+    
+    /**
+     * Only the fields that differ from the previous state. Values are absolute.
+     */
+    static ByteBuffer encodeDelta(long seq, int[] red, int[] blue, int[] previousRed, int[] previousBlue) {
+        int redMask = changedMask(red, previousRed);
+        int blueMask = changedMask(blue, previousBlue);
+        
+        ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD);
+        payload.put((byte) (VERSION << 4 | KIND_DELTA));
+        putVarLong(payload, seq);
+        payload.put((byte) ((redMask != 0 ? 1 : 0) | (blueMask != 0 ? 2 : 0)));
+        if (redMask != 0) {
+            putVarLong(payload, redMask);
+            putAlliance(payload, red, redMask);
+        }
+        if (blueMask != 0) {
+            putVarLong(payload, blueMask);
+            putAlliance(payload, blue, blueMask);
+        }
+        return frame(payload);
+    }
+    
+    /**
+     * Decode one payload (the bytes after MARKER and the length byte)
+     * @throws IllegalArgumentException if the payload is malformed or from an unknown version
+     */
+    static Frame decode(byte[] data, int offset, int length) {
+        ByteBuffer payload = ByteBuffer.wrap(data, offset, length);
+        try {
+            int header = payload.get() & 0xFF;
+            if (header >> 4 != VERSION) {
+                throw new IllegalArgumentException("Unsupported binary frame version " + (header >> 4));
+            }
+            
+            Frame frame = new Frame();
+            frame.kind = header & 0x0F;
+            frame.seq = getVarLong(payload);
+            if (frame.kind == KIND_SNAPSHOT) {
+                frame.redMask = ALL_FIELDS;
+                frame.blueMask = ALL_FIELDS;
+                getAlliance(payload, frame.red, ALL_FIELDS);
+                getAlliance(payload, frame.blue, ALL_FIELDS);
+            } else if (frame.kind == KIND_DELTA) {
+                int alliances = payload.get();
+                if ((alliances & 1) != 0) {
+                    frame.redMask = (int) getVarLong(payload) & ALL_FIELDS;
+                    getAlliance(payload, frame.red, frame.redMask);
+                }
+                if ((alliances & 2) != 0) {
+                    frame.blueMask = (int) getVarLong(payload) & ALL_FIELDS;
+                    getAlliance(payload, frame.blue, frame.blueMask);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown binary frame kind " + frame.kind);
+            }
+            return frame;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary frame");
+        }
+    }
+    
+    private static void putAlliance(ByteBuffer out, int[] values, int mask) {
+        for (ScoreField field : ScoreField.ALL) {
+            if (field.getKind() == ScoreField.Kind.COUNTER && (mask & bit(field)) != 0) {
+                putVarLong(out, values[field.ordinal()] & 0xFFFFFFFFL);
+            }
+        }
+        if ((mask & PACKED_FIELDS) != 0) {
+            out.put((byte) (
+                (values[ScoreField.ROBOT1_LEAVE.ordinal()] != 0 ? 1 : 0) |
+                (values[ScoreField.ROBOT2_LEAVE.ordinal()] != 0 ? 2 : 0) |
+                (values[ScoreField.ROBOT1_BASE.ordinal()] & 3) << 2 |
+                (values[ScoreField.ROBOT2_BASE.ordinal()] & 3) << 4));
+        }
+    }
+    
+    private static void getAlliance(ByteBuffer in, int[] values, int mask) {
+        for (ScoreField field : ScoreField.ALL) {
+            if (field.getKind() == ScoreField.Kind.COUNTER && (mask & bit(field)) != 0) {
+                values[field.ordinal()] = (int) getVarLong(in);
+            }
+        }
+        if ((mask & PACKED_FIELDS) != 0) {
+            int packed = in.get();
+            values[ScoreField.ROBOT1_LEAVE.ordinal()] = packed & 1;
+            values[ScoreField.ROBOT2_LEAVE.ordinal()] = packed >> 1 & 1;
+            values[ScoreField.ROBOT1_BASE.ordinal()] = packed >> 2 & 3;
+            values[ScoreField.ROBOT2_BASE.ordinal()] = packed >> 4 & 3;
+        }
+    }
+    
+    private static int changedMask(int[] values, int[] previous) {
+        int mask = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != previous[i]) mask |= 1 << i;
+        }
+        return mask;
+    }
+    
+    private static int bit(ScoreField field) {
+        return 1 << field.ordinal();
+    }
+    
+    private static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+    
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+    
+    /**
+     * Wrap a payload with the marker and length into a shareable read-only direct buffer
+     */
+    private static ByteBuffer frame(ByteBuffer payload) {
+        payload.flip();
+        ByteBuffer frame = ByteBuffer.allocateDirect(payload.remaining() + 2);
+        frame.put(MARKER);
+        frame.put((byte) payload.remaining());
+        frame.put(payload);
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+    
+    /**
+     * A decoded frame. Only the fields whose bit is set in the alliance mask are valid.
+     */
+    static final class Frame {
+        int kind;
+        long seq;
+        final int[] red = new int[ScoreField.COUNT];
+        final int[] blue = new int[ScoreField.COUNT];
+        int redMask;
+        int blueMask;
+    }
+}
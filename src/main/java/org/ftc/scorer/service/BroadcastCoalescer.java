@@ -0,0 +1,104 @@
+package org.ftc.scorer.service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collapses bursts of change notifications into at most one flush per interval.
+ *
+ * The first change after a quiet period flushes immediately; further changes inside
+ * the interval only mark the state dirty, and a single trailing flush picks up the
+ * latest state. A burst such as resetting 26 spinners becomes one or two broadcasts.
+ */
+public class BroadcastCoalescer {
+    private final Runnable flushAction;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private volatile long intervalMs;
+    private volatile long lastFlushNanos;
+    
+    /**
+     * @param flushAction work to run on flush (called from the coalescer thread,
+     *                    or from the caller's thread when the interval is 0)
+     * @param intervalMs minimum time between flushes; 0 flushes synchronously on every change
+     * @param threadName name for the flush thread
+     */
+    public BroadcastCoalescer(Runnable flushAction, long intervalMs, String threadName) {
+        this.flushAction = flushAction;
+        this.intervalMs = intervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+    
+    /**
+     * Record that state changed. Cheap and safe to call from any thread.
+     */
+    public void markDirty() {
+        requested.incrementAndGet();
+        
+        if (intervalMs <= 0) {
+            flush();
+            return;
+        }
+        
+        if (flushScheduled.compareAndSet(false, true)) {
+            long delay = 0;
+            if (flushed.get() > 0) {
+                long sinceLast = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastFlushNanos);
+                delay = Math.max(0, intervalMs - sinceLast);
+            }
+            try {
+                scheduler.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false); // Shut down; nothing left to flush to
+            }
+        }
+    }
+    
+    private void flush() {
+        // Clear the flag first so changes made while flushing schedule another pass
+        flushScheduled.set(false);
+        lastFlushNanos = System.nanoTime();
+        flushed.incrementAndGet();
+        try {
+            flushAction.run();
+        } catch (Exception e) {
+            System.err.println("Broadcast flush failed: " + e.getMessage());
+        }
+    }
+    
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = Math.max(0, intervalMs);
+    }
+    
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+    
+    /**
+     * Number of change notifications received
+     */
+    public long getRequestedCount() {
+        return requested.get();
+    }
+    
+    /**
+     * Number of notifications folded into another flush instead of causing their own
+     */
+    public long getSuppressedCount() {
+        return Math.max(0, requested.get() - flushed.get());
+    }
+    
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
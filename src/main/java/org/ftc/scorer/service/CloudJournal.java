@@ -0,0 +1,309 @@
+package org.ftc.scorer.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Write-ahead journal of cloud column writes, so scores entered while the uplink is
+ * down survive a crash or restart.
+ *
+ * Before a push goes out, every column whose value changed since the last append is
+ * written as one JSON line and the file is synced; a 2xx from the backend appends an
+ * ack covering every entry up to the push's last sequence number:
+ *   {"event":"SCRIMMAGE","role":"RED_SCORER"}                           header
+ *   {"seq":41,"at":1729080000000,"col":"red_teleop_depot","int":5}
+ *   {"seq":42,"at":1729080000000,"col":"red_robot1_base","int":2}
+ *   {"ack":42}
+ * A later entry for a column supersedes the earlier one, so the pending set holds at
+ * most one value per column, in the order they were last written. Once dead lines
+ * (superseded entries and acks) make up most of the file, it is rewritten with the
+ * header and the live entries only.
+ *
+ * If the file cannot be written the journal keeps working in memory and says so once.
+ * Not thread-safe; CloudSyncService calls it under pushLock.
+ */
+final class CloudJournal {
+    private static final int COMPACT_MIN_LINES = 256;
+    
+    private static final class Entry {
+        final long seq;
+        final long atMillis;
+        final long sinceMillis;    // When the column first became pending
+        final Object value;        // Integer, String or null
+        
+        Entry(long seq, long atMillis, long sinceMillis, Object value) {
+            this.seq = seq;
+            this.atMillis = atMillis;
+            this.sinceMillis = sinceMillis;
+            this.value = value;
+        }
+    }
+    
+    private final Path file;
+    private final Map<String, Entry> latest = new LinkedHashMap<>();   // Last value per column, in write order
+    private final JsonParser.MessageView line = new JsonParser.MessageView();
+    private String header;
+    private FileChannel channel;
+    private long nextSeq = 1;
+    private long ackedSeq = 0;
+    private int lines = 0;
+    
+    CloudJournal(Path file) {
+        this.file = file;
+    }
+    
+    /**
+     * Start journaling for an event and role. Entries left by an earlier run for the
+     * same event and role are kept when keepPending is set; anything else is dropped.
+     * @return number of columns still waiting for the backend
+     */
+    int open(String event, String role, boolean keepPending) {
+        close();
+        latest.clear();
+        nextSeq = 1;
+        ackedSeq = 0;
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject().name("event").value(event).name("role").value(role).endObject();
+        header = json.toString();
+        
+        if (keepPending) {
+            load();
+        }
+        // Acked entries only matter to the next diff, which starts from scratch after a join
+        latest.values().removeIf(entry -> entry.seq <= ackedSeq);
+        try {
+            Files.createDirectories(file.getParent());
+            rewrite();
+        } catch (IOException e) {
+            System.err.println("Cloud journal unavailable, keeping writes in memory: " + e.getMessage());
+        }
+        return pendingCount();
+    }
+    
+    private void load() {
+        List<String> text;
+        try {
+            if (!Files.exists(file)) return;
+            text = Files.readAllLines(file);
+        } catch (IOException e) {
+            System.err.println("Could not read cloud journal: " + e.getMessage());
+            return;
+        }
+        if (text.isEmpty() || !text.get(0).equals(header)) {
+            return; // Another event or role
+        }
+        for (String raw : text.subList(1, text.size())) {
+            byte[] bytes = raw.getBytes(StandardCharsets.UTF_8);
+            if (!line.wrap(bytes, 0, bytes.length)) {
+                break; // Torn last line from a crash
+            }
+            long ack = line.getLong("ack", -1);
+            if (ack >= 0) {
+                ackedSeq = Math.max(ackedSeq, ack);
+                continue;
+            }
+            long seq = line.getLong("seq", -1);
+            String column = line.getString("col");
+            if (seq < 0 || column == null) {
+                break;
+            }
+            long at = line.getLong("at", 0);
+            long number = line.getLong("int", Long.MIN_VALUE);
+            Object value = number != Long.MIN_VALUE ? (Object) (int) number : line.getString("str");
+            put(column, seq, at, value);
+            nextSeq = Math.max(nextSeq, seq + 1);
+        }
+    }
+    
+    /**
+     * Append the columns whose value differs from the last one journaled and sync the file
+     * @param columns column name to Integer, String or null, in push order
+     * @return sequence number an ack for these values has to cover
+     */
+    long record(Map<String, Object> columns) {
+        long now = System.currentTimeMillis();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int appended = 0;
+        for (Map.Entry<String, Object> column : columns.entrySet()) {
+            Entry previous = latest.get(column.getKey());
+            if (previous != null && Objects.equals(previous.value, column.getValue())) {
+                continue;
+            }
+            long seq = nextSeq++;
+            put(column.getKey(), seq, now, column.getValue());
+            writeEntry(out, column.getKey(), seq, now, column.getValue());
+            appended++;
+        }
+        if (appended > 0) {
+            append(out, appended);
+        }
+        return nextSeq - 1;
+    }
+    
+    /**
+     * The backend has every value journaled up to seq
+     */
+    void ack(long seq) {
+        if (seq <= ackedSeq) {
+            return;
+        }
+        ackedSeq = seq;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeAck(out, seq);
+        append(out, 1);
+        if (lines >= COMPACT_MIN_LINES && lines > 2 * (pendingCount() + 1)) {
+            try {
+                rewrite();
+            } catch (IOException e) {
+                System.err.println("Could not compact cloud journal: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Columns written locally that the backend has not acknowledged
+     */
+    int pendingCount() {
+        int pending = 0;
+        for (Entry entry : latest.values()) {
+            if (entry.seq > ackedSeq) pending++;
+        }
+        return pending;
+    }
+    
+    /**
+     * currentTimeMillis when the longest-waiting pending column was first written, or 0
+     */
+    long oldestPendingMillis() {
+        long oldest = 0;
+        for (Entry entry : latest.values()) {
+            if (entry.seq > ackedSeq && (oldest == 0 || entry.sinceMillis < oldest)) {
+                oldest = entry.sinceMillis;
+            }
+        }
+        return oldest;
+    }
+    
+    /**
+     * Pending columns and their values, oldest write first
+     */
+    Map<String, Object> pending() {
+        Map<String, Object> pending = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> column : latest.entrySet()) {
+            if (column.getValue().seq > ackedSeq) {
+                pending.put(column.getKey(), column.getValue().value);
+            }
+        }
+        return pending;
+    }
+    
+    void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+            channel = null;
+        }
+    }
+    
+    private void put(String column, long seq, long atMillis, Object value) {
+        // Re-inserted so the map stays in write order
+        Entry previous = latest.remove(column);
+        long since = previous != null && previous.seq > ackedSeq ? previous.sinceMillis : atMillis;
+        latest.put(column, new Entry(seq, atMillis, since, value));
+    }
+    
+    private static void writeEntry(ByteArrayOutputStream out, String column, long seq, long atMillis, Object value) {
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject();
+        json.name("seq").value(seq);
+        json.name("at").value(atMillis);
+        json.name("col").value(column);
+        if (value instanceof Integer) {
+            json.name("int").value((long) (Integer) value);
+        } else if (value != null) {
+            json.name("str").value(value.toString());
+        }
+        json.endObject();
+        writeLine(json, out);
+    }
+    
+    private static void writeAck(ByteArrayOutputStream out, long seq) {
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject().name("ack").value(seq).endObject();
+        writeLine(json, out);
+    }
+    
+    private static void writeLine(JsonWriter json, ByteArrayOutputStream out) {
+        try {
+            json.writeLine(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Not thrown by an in-memory stream
+        }
+    }
+    
+    private void append(ByteArrayOutputStream out, int lineCount) {
+        lines += lineCount;
+        if (channel == null) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            System.err.println("Cloud journal write failed, keeping writes in memory: " + e.getMessage());
+            close();
+        }
+    }
+    
+    /**
+     * Replace the file with the header and the live entries, then reopen it for appends
+     */
+    private void rewrite() throws IOException {
+        close();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write((header + "\n").getBytes(StandardCharsets.UTF_8));
+        int count = 1;
+        for (Iterator<Map.Entry<String, Entry>> it = latest.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Entry> column = it.next();
+            Entry entry = column.getValue();
+            if (entry.seq <= ackedSeq) {
+                continue;
+            }
+            writeEntry(out, column.getKey(), entry.seq, entry.atMillis, entry.value);
+            count++;
+        }
+        if (ackedSeq > 0) {
+            writeAck(out, ackedSeq);
+            count++;
+        }
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel temporary = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                      StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                temporary.write(buffer);
+            }
+            temporary.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lines = count;
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
@@ -1,18 +1,30 @@
 package org.ftc.scorer.service;
 
-import javafx.application.Platform;
 import org.ftc.scorer.model.DecodeScore;
 import org.ftc.scorer.model.Match;
+import org.ftc.scorer.model.ScoreField;
+import org.ftc.scorer.model.ScoreSnapshot;
 
+import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.security.MessageDigest;
 import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.prefs.Preferences;
 
 /**
@@ -30,6 +42,33 @@ import java.util.prefs.Preferences;
  * - SUPABASE_KEY: Your Supabase anon key
  * 
  * See supabase-setup/ folder for setup instructions.
+ * 
+ * UPDATES:
+ * Changes to the event row are pushed over Supabase Realtime (see RealtimeSubscriber)
+ * and applied as they arrive. While that feed is live the sync tick fetches the row
+ * only every REALTIME_CHECK_MS; if the socket drops, it fetches every tick again.
+ * 
+ * SYNC TICK:
+ * The heartbeat, score push and device count of a tick go out together with
+ * sendAsync, multiplexed over one HTTP/2 connection and capped at MAX_IN_FLIGHT
+ * requests. The fetch waits for the push so a row older than our own unsent
+ * changes is never applied. A tick that comes due while the last one is still
+ * waiting on the network is skipped, and every tick's duration is recorded.
+ * 
+ * PRESENCE:
+ * Scorers PATCH their last_seen every HEARTBEAT_INTERVAL_MS rather than every
+ * tick; the host has no connected_devices row and sends none. The host counts
+ * scorers per role every PRESENCE_INTERVAL_MS with HEAD + "Prefer: count=exact",
+ * which answers with a Content-Range header and no body, and keeps the counts in
+ * a PresenceTracker.
+ * 
+ * OFFLINE WRITES:
+ * Every column a scorer's push carries is first written to a CloudJournal on disk and
+ * acked there once the backend answers 2xx. While the uplink is down the values wait
+ * in the journal and go out with the next push that succeeds, after the usual backoff.
+ * A scorer that restarts and joins the same event again gets its unsent scores back.
+ * The host does not journal: it cannot create an event that already exists, so nothing
+ * would read its writes back. Its unsent changes only wait in memory.
  */
 public class CloudSyncService {
     
@@ -61,17 +100,91 @@ public class CloudSyncService {
     private Runnable onScoreUpdate;
     private Runnable onConnectionChange;
     private Runnable onDeviceListUpdate;
+    private volatile boolean realtimeEnabled = true;
+    private volatile RealtimeSubscriber realtime;
+    private volatile NotificationExecutor notifier = NotificationExecutor.direct();
+    
+    // Reused by the sync thread for every fetched row
+    private final JsonParser.ScoreMessage fetchedScores = new JsonParser.ScoreMessage();
+    private final JsonParser.MessageView fetchedRow = new JsonParser.MessageView();
     
     // Connected devices tracking (for host)
+    private static final String[] SCORER_ROLES = {"RED_SCORER", "BLUE_SCORER"};
+    private static final int HEARTBEAT_INTERVAL_MS = 10000;
+    private static final int PRESENCE_INTERVAL_MS = 10000;
+    private static final int PRESENCE_WINDOW_S = 30;         // last_seen newer than this counts
+    private static final int PRESENCE_TTL_MS = 30000;
+    private final PresenceTracker presence = new PresenceTracker(PRESENCE_TTL_MS);
     private volatile int connectedDevices = 0;
+    private long nextHeartbeatNanos;
+    private long nextPresenceNanos;
     private volatile String lastSyncTime = "";
     
     // Sync interval in milliseconds
     private static final int SYNC_INTERVAL_MS = 500;
+    private static final int REVIEW_INTERVAL_MS = 2000;     // FINISHED / UNDER_REVIEW
+    private static final int IDLE_INTERVAL_MS = 5000;       // NOT_STARTED, between matches
+    private static final int MAX_BACKOFF_MS = 30000;
+    // Fetch this often even while realtime is live, in case the table is not published
+    private static final int REALTIME_CHECK_MS = 10000;
+    // Fetch without the updated_at filter this often, in case a write landed with an older stamp
+    private static final int FULL_FETCH_INTERVAL_MS = 5000;
+    
+    // Cadence state (sync thread only, except the volatile fields read by the UI)
+    private long lastFetchNanos;
+    private long nextSyncNanos;
+    private long lastSyncedVersion = -1;
+    private volatile int failures;
+    private volatile long effectiveIntervalMs = SYNC_INTERVAL_MS;
+    private volatile Match.MatchState remoteState;
+    private volatile String lastSeenUpdatedAt;   // updated_at of the newest row applied
+    private volatile long nextFullFetchNanos;
+    private final AtomicLong fullFetches = new AtomicLong();
+    private final AtomicLong fetchedBytes = new AtomicLong();
+    
+    // Columns the backend has acknowledged, so pushes only carry changes (guarded by pushLock)
+    private static final String[] TEAM_COLUMNS = {"red_team1", "red_team2", "blue_team1", "blue_team2"};
+    private static final String SCORE_SELECT = buildScoreSelect();
+    private final Object pushLock = new Object();
+    private long ackedVersion = -1;
+    private String ackedMotif;
+    private String ackedState;
+    private String[] ackedTeams = new String[TEAM_COLUMNS.length];
+    private int[] ackedRed;
+    private int[] ackedBlue;
+    // Values of the push in flight, null when none is (guarded by pushLock)
+    private String pushingMotif;
+    private int[] pushingRed;
+    private int[] pushingBlue;
+    // updated_at of the row our last acknowledged write of each field produced, in
+    // microseconds (guarded by pushLock); a row stamped earlier predates that write
+    private long[] redWrittenAt;
+    private long[] blueWrittenAt;
+    private long motifWrittenAt = Long.MIN_VALUE;
+    private final AtomicLong scorePushes = new AtomicLong();
+    private final AtomicLong skippedPushes = new AtomicLong();
+    
+    // Writes the backend has not acknowledged yet, on disk (guarded by pushLock)
+    private volatile Path journalDirectory = Path.of(System.getProperty("user.home"), ".stream-scorer");
+    private CloudJournal journal;
+    private long journaledVersion = -1;   // Sync thread only
+    private volatile int pendingWrites;
+    private volatile long oldestPendingMillis;
+    
+    // Tick requests in flight at once, and how long a tick may wait on one of them
+    private static final int MAX_IN_FLIGHT = 6;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int TICK_WINDOW = 256;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final AtomicBoolean tickRunning = new AtomicBoolean();
+    private final AtomicLong skippedTicks = new AtomicLong();
+    private final LatencyHistogram tickTimes = new LatencyHistogram(TICK_WINDOW); // Guarded by itself
+    private volatile long lastTickMicros;
     
     public CloudSyncService(Match match) {
         this.match = match;
         this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2) // Falls back to HTTP/1.1 if the server can't
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
         this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
@@ -161,7 +274,8 @@ public class CloudSyncService {
         try {
             String seed = System.getProperty("user.name") + 
                          System.getProperty("os.name") + 
-                         System.currentTimeMillis();
+                         System.currentTimeMillis() +
+                         System.nanoTime() + ThreadLocalRandom.current().nextLong(); // Unique per instance
             MessageDigest md = MessageDigest.getInstance("SHA-256");
             byte[] hash = md.digest(seed.getBytes(StandardCharsets.UTF_8));
             return Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 12);
@@ -219,6 +333,7 @@ public class CloudSyncService {
                 // Create the event
                 boolean success = insertEventData();
                 if (success) {
+                    closeJournal(); // Hosts don't journal (see OFFLINE WRITES)
                     connected = true;
                     startPolling();
                     notifyConnectionChange();
@@ -276,6 +391,11 @@ public class CloudSyncService {
                 // Register this device as a scorer
                 registerDevice();
                 
+                // Scores entered before a restart that never reached the backend
+                if (openJournal(true) > 0) {
+                    restorePendingWrites();
+                }
+                
                 connected = true;
                 startPolling();
                 notifyConnectionChange();
@@ -384,7 +504,7 @@ public class CloudSyncService {
     /**
      * Update device heartbeat
      */
-    private void updateHeartbeat() throws Exception {
+    private CompletableFuture<Void> updateHeartbeat() {
         String json = "{\"last_seen\":\"" + java.time.Instant.now().toString() + "\"}";
         
         HttpRequest request = HttpRequest.newBuilder()
@@ -393,9 +513,10 @@ public class CloudSyncService {
                 .header("Authorization", "Bearer " + supabaseKey)
                 .header("Content-Type", "application/json")
                 .method("PATCH", HttpRequest.BodyPublishers.ofString(json))
+                .timeout(REQUEST_TIMEOUT)
                 .build();
         
-        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenAccept(response -> {});
     }
     
     /**
@@ -409,6 +530,8 @@ public class CloudSyncService {
             syncTask.cancel(true);
             syncTask = null;
         }
+        stopRealtime();
+        closeJournal();
         
         // Remove device from connected list
         if (eventName != null && deviceId != null) {
@@ -439,13 +562,12 @@ public class CloudSyncService {
             return;
         }
         
-        CompletableFuture.runAsync(() -> {
-            try {
-                upsertScoreData();
-            } catch (Exception e) {
-                System.err.println("Failed to send score update: " + e.getMessage());
-            }
-        });
+        // Push now rather than at the next tick; syncTick sees the new version
+        try {
+            scheduler.execute(this::syncTick);
+        } catch (RejectedExecutionException ignored) {
+            // Shut down
+        }
     }
     
     /**
@@ -456,294 +578,944 @@ public class CloudSyncService {
             syncTask.cancel(true);
         }
         
-        syncTask = scheduler.scheduleAtFixedRate(() -> {
-            if (!connected) return;
+        startRealtime();
+        
+        nextSyncNanos = 0;
+        journaledVersion = -1;
+        nextHeartbeatNanos = 0;
+        nextPresenceNanos = 0;
+        presence.clear();
+        connectedDevices = 0;
+        failures = 0;
+        lastSeenUpdatedAt = null;
+        nextFullFetchNanos = 0;
+        resetAcknowledged();
+        syncTask = scheduler.scheduleWithFixedDelay(this::syncTick, 0, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Wakes every SYNC_INTERVAL_MS but only talks to the backend when the current
+     * cadence is due, or right away when the local scores changed (sync thread).
+     * A change between due ticks only pushes; heartbeat, fetch and count wait.
+     */
+    private void syncTick() {
+        if (!connected) return;
+        
+        long now = System.nanoTime();
+        long version = match.getSnapshot().getVersion();
+        if (version != journaledVersion) {
+            journaledVersion = version;
+            journalLocalChanges(); // Even while backing off, so a restart does not lose them
+        }
+        boolean localChange = version != lastSyncedVersion && failures == 0;
+        boolean due = now - nextSyncNanos >= 0;
+        if (!due && !localChange) {
+            return;
+        }
+        if (!tickRunning.compareAndSet(false, true)) {
+            skippedTicks.incrementAndGet(); // Previous tick still waiting on the network
+            return;
+        }
+        syncing = true;
+        
+        CompletableFuture<Void> tick;
+        try {
+            // Push our scores, then fetch the latest state unless realtime already pushes it
+            boolean fetch = due && (!isRealtimeLive() || now - lastFetchNanos > TimeUnit.MILLISECONDS.toNanos(REALTIME_CHECK_MS));
+            if (fetch) {
+                lastFetchNanos = now;
+            }
+            CompletableFuture<Void> pushThenFetch = upsertScoreData().thenCompose(pushed -> {
+                lastSyncedVersion = version;
+                return fetch ? fetchScoreData() : CompletableFuture.<Void>completedFuture(null);
+            });
             
-            try {
-                syncing = true;
-                
-                // Update heartbeat
-                updateHeartbeat();
-                
-                // Push our scores
-                upsertScoreData();
-                
-                // Fetch latest state
-                fetchScoreData();
-                
-                // If host, count connected devices
-                if ("HOST".equals(deviceRole)) {
-                    countConnectedDevices();
+            // Presence alongside, each on its own slower cadence: the host counts
+            // scorers, scorers refresh their last_seen
+            CompletableFuture<Void> presenceWork = CompletableFuture.completedFuture(null);
+            if ("HOST".equals(deviceRole)) {
+                if (due && now - nextPresenceNanos >= 0) {
+                    nextPresenceNanos = now + TimeUnit.MILLISECONDS.toNanos(PRESENCE_INTERVAL_MS);
+                    presenceWork = countConnectedDevices();
+                }
+            } else {
+                if (now - nextHeartbeatNanos >= 0) {
+                    nextHeartbeatNanos = now + TimeUnit.MILLISECONDS.toNanos(HEARTBEAT_INTERVAL_MS);
+                    presenceWork = updateHeartbeat();
                 }
-                
-                lastSyncTime = java.time.LocalTime.now().toString().substring(0, 8);
-                
-            } catch (Exception e) {
-                System.err.println("Sync error: " + e.getMessage());
-            } finally {
-                syncing = false;
             }
-        }, 0, SYNC_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            tick = CompletableFuture.allOf(pushThenFetch, presenceWork);
+        } catch (RuntimeException e) {
+            tick = CompletableFuture.failedFuture(e);
+        }
+        tick.whenCompleteAsync((ignored, error) -> finishTick(now, due, error), scheduler);
+    }
+    
+    /**
+     * Record the tick and set up the next one (sync thread)
+     */
+    private void finishTick(long startNanos, boolean due, Throwable error) {
+        long micros = (System.nanoTime() - startNanos) / 1000;
+        lastTickMicros = micros;
+        synchronized (tickTimes) {
+            tickTimes.recordMicros(micros);
+        }
+        
+        updateConnectedDevices(); // Counts expire even when the backend is unreachable
+        if (error == null) {
+            lastSyncTime = java.time.LocalTime.now().toString().substring(0, 8);
+            failures = 0;
+            setEffectiveInterval(cadenceMs());
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            System.err.println("Sync error: " + cause.getMessage());
+            failures++;
+            setEffectiveInterval(backoffMs(failures));
+        }
+        syncing = false;
+        if (due || error != null) {
+            nextSyncNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(effectiveIntervalMs);
+        }
+        tickRunning.set(false);
+    }
+    
+    /**
+     * Send one request without blocking. At most MAX_IN_FLIGHT are outstanding; past
+     * that the request fails at once rather than queueing behind a slow link, and the
+     * tick backs off like any other failure.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(new IOException("Too many requests in flight"));
+        }
+        CompletableFuture<HttpResponse<T>> response;
+        try {
+            response = httpClient.sendAsync(request, handler);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+        return response.whenComplete((r, e) -> inFlight.release()).thenApply(CloudSyncService::checkStatus);
+    }
+    
+    /**
+     * Sync interval for the match phase: fast while a match runs, slower while
+     * results are up, slowest between matches. Uses the busier of our own state
+     * and the state last seen in the cloud row, so a scorer speeds up when the host
+     * starts a match.
+     */
+    private long cadenceMs() {
+        Match.MatchState local = match.getSnapshot().getState();
+        return Math.min(cadenceFor(local), cadenceFor(remoteState));
+    }
+    
+    private static long cadenceFor(Match.MatchState state) {
+        if (state == null) {
+            return IDLE_INTERVAL_MS;
+        }
+        switch (state) {
+            case AUTONOMOUS:
+            case TRANSITION:
+            case TELEOP:
+            case END_GAME:
+                return SYNC_INTERVAL_MS;
+            case FINISHED:
+            case UNDER_REVIEW:
+                return REVIEW_INTERVAL_MS;
+            default:
+                return IDLE_INTERVAL_MS;
+        }
+    }
+    
+    /**
+     * Exponential backoff after consecutive failures, with jitter so devices that lost
+     * the same uplink don't all retry at once: between half and all of
+     * min(MAX_BACKOFF_MS, SYNC_INTERVAL_MS * 2^failures)
+     */
+    private static long backoffMs(int failures) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, (long) SYNC_INTERVAL_MS << Math.min(failures, 16));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+    
+    private void setEffectiveInterval(long intervalMs) {
+        if (intervalMs != effectiveIntervalMs) {
+            effectiveIntervalMs = intervalMs;
+            notifyConnectionChange(); // Shown in the cloud status
+        }
+    }
+    
+    /**
+     * Subscribe to pushed changes of the event row, if enabled
+     */
+    private synchronized void startRealtime() {
+        stopRealtime();
+        if (!realtimeEnabled) {
+            return;
+        }
+        realtime = new RealtimeSubscriber(httpClient, scheduler, supabaseUrl, supabaseKey, eventName,
+            this::onRealtimeRow, this::onRealtimeStateChange);
+        realtime.start();
+    }
+    
+    private synchronized void stopRealtime() {
+        if (realtime != null) {
+            realtime.stop();
+            realtime = null;
+        }
+    }
+    
+    /**
+     * A pushed row: apply it on the sync thread, which owns the parser scratch space
+     */
+    private void onRealtimeRow(byte[] data, int offset, int length) {
+        scheduler.execute(() -> {
+            if (connected) {
+                applyScoreRow(data, offset, length);
+            }
+        });
+    }
+    
+    private void onRealtimeStateChange() {
+        if (isRealtimeLive()) {
+            // Pick up anything that changed while the feed was down
+            if (connected) {
+                fetchScoreData().whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        System.err.println("Catch-up fetch failed: " + e.getMessage());
+                    }
+                });
+            }
+        }
+        notifyConnectionChange();
+    }
+    
+    /**
+     * Receive changes over Supabase Realtime instead of fetching them every tick
+     * (default true). Takes effect on the next create/join.
+     */
+    public void setRealtimeEnabled(boolean enabled) {
+        this.realtimeEnabled = enabled;
+    }
+    
+    /**
+     * True while changes are pushed over Realtime; false means the tick is polling
+     */
+    public boolean isRealtimeLive() {
+        RealtimeSubscriber subscriber = realtime;
+        return subscriber != null && subscriber.isLive();
+    }
+    
+    /**
+     * Number of row changes pushed over Realtime in this session
+     */
+    public long getRealtimeChangeCount() {
+        RealtimeSubscriber subscriber = realtime;
+        return subscriber != null ? subscriber.getChangeCount() : 0;
     }
     
     /**
      * Build event JSON for creation
      */
     private String buildEventJson() {
-        StringBuilder json = new StringBuilder();
-        json.append("{");
-        json.append("\"event_name\":\"").append(eventName).append("\",");
-        json.append("\"password_hash\":\"").append(eventPasswordHash).append("\",");
-        json.append("\"host_device_id\":\"").append(deviceId).append("\",");
-        json.append("\"created_at\":\"").append(java.time.Instant.now().toString()).append("\",");
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject();
+        json.name("event_name").value(eventName);
+        json.name("password_hash").value(eventPasswordHash);
+        json.name("host_device_id").value(deviceId);
+        json.name("created_at").value(java.time.Instant.now().toString());
         
         // Initial score data
-        json.append("\"motif\":\"").append(match.getRedScore().getMotif().name()).append("\",");
-        json.append("\"match_state\":\"").append(match.getState().name()).append("\",");
+        ScoreSnapshot snapshot = match.getSnapshot();
+        json.name("motif").value(snapshot.getRed().getMotif().name());
+        json.name("match_state").value(snapshot.getState().name());
         
         // Team info
-        json.append("\"red_team1\":\"").append(escapeJson(match.getRedTeam1Number())).append("\",");
-        json.append("\"red_team2\":\"").append(escapeJson(match.getRedTeam2Number())).append("\",");
-        json.append("\"blue_team1\":\"").append(escapeJson(match.getBlueTeam1Number())).append("\",");
-        json.append("\"blue_team2\":\"").append(escapeJson(match.getBlueTeam2Number())).append("\",");
-        
-        // Red scores
-        appendScoreFields(json, "red_", match.getRedScore());
-        
-        // Blue scores
-        appendScoreFields(json, "blue_", match.getBlueScore());
+        appendTeams(json);
         
-        // Remove trailing comma
-        if (json.charAt(json.length() - 1) == ',') {
-            json.setLength(json.length() - 1);
-        }
-        json.append("}");
+        // Red and blue scores
+        ScoreCodec.writeFields(json, ScoreCodec.Naming.RED_COLUMNS, snapshot.getRed());
+        ScoreCodec.writeFields(json, ScoreCodec.Naming.BLUE_COLUMNS, snapshot.getBlue());
+        json.endObject();
         
         return json.toString();
     }
     
     /**
-     * Update score data in cloud
+     * Update score data in cloud: PATCH only the columns that differ from what the
+     * backend last acknowledged, and send nothing if none do
+     * @return completes with true once a PATCH was acknowledged, false if none was needed
      */
-    private void upsertScoreData() throws Exception {
-        StringBuilder json = new StringBuilder();
-        json.append("{");
-        
-        // Always update motif and match state
-        json.append("\"motif\":\"").append(match.getRedScore().getMotif().name()).append("\",");
-        json.append("\"match_state\":\"").append(match.getState().name()).append("\",");
-        
-        // Update based on role
-        if ("HOST".equals(deviceRole)) {
-            // Host updates everything
-            json.append("\"red_team1\":\"").append(escapeJson(match.getRedTeam1Number())).append("\",");
-            json.append("\"red_team2\":\"").append(escapeJson(match.getRedTeam2Number())).append("\",");
-            json.append("\"blue_team1\":\"").append(escapeJson(match.getBlueTeam1Number())).append("\",");
-            json.append("\"blue_team2\":\"").append(escapeJson(match.getBlueTeam2Number())).append("\",");
-            appendScoreFields(json, "red_", match.getRedScore());
-            appendScoreFields(json, "blue_", match.getBlueScore());
-        } else if ("RED_SCORER".equals(deviceRole)) {
-            appendScoreFields(json, "red_", match.getRedScore());
-        } else if ("BLUE_SCORER".equals(deviceRole)) {
-            appendScoreFields(json, "blue_", match.getBlueScore());
+    private CompletableFuture<Boolean> upsertScoreData() {
+        synchronized (pushLock) {
+            // Everything from one snapshot so the row is consistent
+            ScoreSnapshot snapshot = match.getSnapshot();
+            boolean host = "HOST".equals(deviceRole);
+            String[] teams = host ? currentTeams() : null;
+            if (snapshot.getVersion() == ackedVersion && (!host || Arrays.equals(teams, ackedTeams))) {
+                skippedPushes.incrementAndGet();
+                return CompletableFuture.completedFuture(false);
+            }
+            
+            String motif = snapshot.getRed().getMotif().name();
+            String state = snapshot.getState().name();
+            int[] red = snapshot.getRed().toArray();
+            int[] blue = snapshot.getBlue().toArray();
+            boolean sendRed = host || "RED_SCORER".equals(deviceRole);
+            boolean sendBlue = host || "BLUE_SCORER".equals(deviceRole);
+            
+            // Journal first (scorers only), so the values outlive a failed push or a restart
+            CloudJournal pushJournal = journal;
+            long through = journalWrites(sendRed ? red : null, sendBlue ? blue : null);
+            
+            JsonWriter json = ScoreCodec.writer();
+            json.beginObject();
+            boolean dirty = false;
+            boolean sendMotif = host && !motif.equals(ackedMotif);
+            int redMask = sendRed ? changedFields(red, ackedRed) : 0;
+            int blueMask = sendBlue ? changedFields(blue, ackedBlue) : 0;
+            // Motif, state and teams belong to the host; a scorer's copies only mirror them
+            if (host) {
+                if (sendMotif) {
+                    json.name("motif").value(motif);
+                    dirty = true;
+                }
+                if (!state.equals(ackedState)) {
+                    json.name("match_state").value(state);
+                    dirty = true;
+                }
+                for (int t = 0; t < TEAM_COLUMNS.length; t++) {
+                    if (!Objects.equals(teams[t], ackedTeams[t])) {
+                        json.name(TEAM_COLUMNS[t]).value(teams[t]);
+                        dirty = true;
+                    }
+                }
+            }
+            if (redMask != 0) {
+                ScoreCodec.writeFields(json, ScoreCodec.Naming.RED_COLUMNS, red, ackedRed);
+                dirty = true;
+            }
+            if (blueMask != 0) {
+                ScoreCodec.writeFields(json, ScoreCodec.Naming.BLUE_COLUMNS, blue, ackedBlue);
+                dirty = true;
+            }
+            json.endObject();
+            
+            if (!dirty) {
+                ackedVersion = snapshot.getVersion();
+                ackJournal(pushJournal, through);
+                skippedPushes.incrementAndGet();
+                return CompletableFuture.completedFuture(false);
+            }
+            
+            // The row comes back with the stamp this write gave it, see applyUnlessEdited
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(supabaseUrl + "/rest/v1/events?event_name=eq." + eventName + "&select=updated_at"))
+                    .header("apikey", supabaseKey)
+                    .header("Authorization", "Bearer " + supabaseKey)
+                    .header("Content-Type", "application/json")
+                    .header("Prefer", "return=representation")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(json.toByteArray()))
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+            
+            // Rows that arrive before the ack must not overwrite these either
+            pushingMotif = host ? motif : null;
+            pushingRed = sendRed ? red : null;
+            pushingBlue = sendBlue ? blue : null;
+            return sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((response, error) -> {
+                synchronized (pushLock) {
+                    pushingMotif = null;
+                    pushingRed = null;
+                    pushingBlue = null;
+                }
+            }).thenApplyAsync(response -> {
+                // Acknowledged - later pushes only carry what moved after this. Only the
+                // fields this PATCH carried: a fetch may have moved the others meanwhile.
+                long writtenAt = parseWriteStamp(response.body());
+                synchronized (pushLock) {
+                    ackedVersion = snapshot.getVersion();
+                    if (host) {
+                        ackedMotif = motif;
+                        ackedState = state;
+                        ackedTeams = teams;
+                        if (sendMotif && writtenAt != Long.MIN_VALUE) {
+                            motifWrittenAt = writtenAt;
+                        }
+                    }
+                    ackedRed = ackFields(ackedRed, red, redMask);
+                    ackedBlue = ackFields(ackedBlue, blue, blueMask);
+                    redWrittenAt = stampFields(redWrittenAt, redMask, writtenAt);
+                    blueWrittenAt = stampFields(blueWrittenAt, blueMask, writtenAt);
+                    ackJournal(pushJournal, through);
+                }
+                scorePushes.incrementAndGet();
+                return true;
+            }, scheduler);
         }
-        
-        // Remove trailing comma
-        if (json.charAt(json.length() - 1) == ',') {
-            json.setLength(json.length() - 1);
+    }
+    
+    private String[] currentTeams() {
+        return new String[] {
+            match.getRedTeam1Number(), match.getRedTeam2Number(),
+            match.getBlueTeam1Number(), match.getBlueTeam2Number()
+        };
+    }
+    
+    /**
+     * Forget what the backend holds, so the next push sends every column
+     */
+    private void resetAcknowledged() {
+        synchronized (pushLock) {
+            ackedVersion = -1;
+            ackedMotif = null;
+            ackedState = null;
+            ackedTeams = new String[TEAM_COLUMNS.length];
+            ackedRed = null;
+            ackedBlue = null;
+            pushingMotif = null;
+            pushingRed = null;
+            pushingBlue = null;
+            redWrittenAt = null;
+            blueWrittenAt = null;
+            motifWrittenAt = Long.MIN_VALUE;
         }
-        json.append("}");
-        
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(supabaseUrl + "/rest/v1/events?event_name=eq." + eventName))
-                .header("apikey", supabaseKey)
-                .header("Authorization", "Bearer " + supabaseKey)
-                .header("Content-Type", "application/json")
-                .method("PATCH", HttpRequest.BodyPublishers.ofString(json.toString()))
-                .build();
-        
-        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
     }
     
     /**
-     * Fetch score data from cloud
+     * Mask of the fields a push carries: those that differ from the acknowledged
+     * values, or all of them if there are none
+     */
+    private static int changedFields(int[] values, int[] acked) {
+        if (acked == null) {
+            return (1 << values.length) - 1;
+        }
+        int mask = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != acked[i]) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+    
+    /**
+     * Acknowledged values after a push of the masked fields. The rest keep what
+     * they were, including anything noteFetchedColumns put there during the push.
+     */
+    private static int[] ackFields(int[] acked, int[] sent, int mask) {
+        if (acked == null) {
+            // Nothing acknowledged before, so the push carried every field, unless
+            // resetAcknowledged ran while it was in flight
+            return mask == (1 << sent.length) - 1 ? sent : null;
+        }
+        copyMasked(sent, mask, acked);
+        return acked;
+    }
+    
+    private static long[] stampFields(long[] writtenAt, int mask, long stamp) {
+        if (mask == 0 || stamp == Long.MIN_VALUE) {
+            return writtenAt;
+        }
+        long[] into = writtenAt != null ? writtenAt : new long[ScoreField.COUNT];
+        for (int i = 0; i < into.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                into[i] = stamp;
+            }
+        }
+        return into;
+    }
+    
+    /**
+     * updated_at of the row a PATCH returned, or Long.MIN_VALUE if it returned none
+     * (a backend that ignores return=representation). Sync thread only.
+     */
+    private long parseWriteStamp(byte[] body) {
+        int start = 0;
+        while (start < body.length && body[start] != '{') {
+            start++;
+        }
+        if (start == body.length || !fetchedRow.wrap(body, start, body.length - start)) {
+            return Long.MIN_VALUE;
+        }
+        long stamp = parseStamp(fetchedRow.getString("updated_at"));
+        return stamp != Long.MAX_VALUE ? stamp : Long.MIN_VALUE;
+    }
+    
+    /**
+     * A timestamptz as microseconds since the epoch, or Long.MAX_VALUE if it is
+     * missing or unreadable, so a row without one is never held back
+     */
+    private static long parseStamp(String timestamp) {
+        if (timestamp == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            OffsetDateTime time = OffsetDateTime.parse(timestamp);
+            return time.toEpochSecond() * 1_000_000 + time.getNano() / 1000;
+        } catch (DateTimeParseException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * Start journaling for the event and scorer role just joined
+     * @param keepPending keep writes a previous run left for the same event and role
+     * @return number of writes still owed to the backend
+     */
+    private int openJournal(boolean keepPending) {
+        Path directory = journalDirectory;
+        synchronized (pushLock) {
+            if (journal != null) {
+                journal.close();
+            }
+            journal = directory != null ? new CloudJournal(directory.resolve("cloud-journal-" + deviceRole + ".log")) : null;
+            int pending = journal != null ? journal.open(eventName, deviceRole, keepPending) : 0;
+            updateQueueStats();
+            return pending;
+        }
+    }
+    
+    private void closeJournal() {
+        synchronized (pushLock) {
+            if (journal != null) {
+                journal.close(); // Unsent writes stay on disk for the next join
+                journal = null;
+            }
+            updateQueueStats();
+        }
+    }
+    
+    /**
+     * Journal the scorer's alliance as it is now
+     */
+    private void journalLocalChanges() {
+        synchronized (pushLock) {
+            if (journal == null) {
+                return;
+            }
+            ScoreSnapshot snapshot = match.getSnapshot();
+            journalWrites("RED_SCORER".equals(deviceRole) ? snapshot.getRed().toArray() : null,
+                          "BLUE_SCORER".equals(deviceRole) ? snapshot.getBlue().toArray() : null);
+        }
+    }
+    
+    /**
+     * Journal every score column this push could carry (null for the alliance this
+     * device does not write); the journal keeps only those that changed (pushLock held)
+     * @return sequence number the ack for this push covers, 0 without a journal
+     */
+    private long journalWrites(int[] red, int[] blue) {
+        if (journal == null) {
+            return 0;
+        }
+        Map<String, Object> columns = new LinkedHashMap<>();
+        if (red != null) {
+            for (ScoreField field : ScoreField.ALL) {
+                columns.put("red_" + field.getColumnName(), red[field.ordinal()]);
+            }
+        }
+        if (blue != null) {
+            for (ScoreField field : ScoreField.ALL) {
+                columns.put("blue_" + field.getColumnName(), blue[field.ordinal()]);
+            }
+        }
+        long through = journal.record(columns);
+        updateQueueStats();
+        return through;
+    }
+    
+    /**
+     * The push journaled into pushJournal up to through reached the backend (pushLock held)
+     */
+    private void ackJournal(CloudJournal pushJournal, long through) {
+        // A push from before a rejoin belongs to a journal that is gone
+        if (pushJournal != null && pushJournal == journal) {
+            pushJournal.ack(through);
+            updateQueueStats();
+        }
+    }
+    
+    private void updateQueueStats() {
+        int pending = journal != null ? journal.pendingCount() : 0;
+        oldestPendingMillis = journal != null ? journal.oldestPendingMillis() : 0;
+        if (pending != pendingWrites) {
+            pendingWrites = pending;
+            notifyConnectionChange(); // Shown in the cloud status
+        }
+    }
+    
+    /**
+     * Put scores that never reached the backend before a restart back into the model:
+     * the cloud row first, so columns that did arrive are not pushed back as zeros,
+     * then the journaled values on top. The first push of the session sends them.
+     * Scorers only; the journal holds just their own alliance's columns.
      */
-    private void fetchScoreData() throws Exception {
+    private void restorePendingWrites() throws Exception {
+        Map<String, Object> pending;
+        synchronized (pushLock) {
+            pending = journal.pending();
+        }
+        
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(supabaseUrl + "/rest/v1/events?event_name=eq." + eventName + "&select=*"))
+                .uri(URI.create(supabaseUrl + "/rest/v1/events?event_name=eq." + eventName + "&select=" + SCORE_SELECT))
                 .header("apikey", supabaseKey)
                 .header("Authorization", "Bearer " + supabaseKey)
                 .header("Accept", "application/json")
                 .GET()
                 .build();
         
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        
-        if (response.statusCode() == 200 && response.body().length() > 2) {
-            applyScoreData(response.body());
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IOException("HTTP " + response.statusCode() + " while restoring unsent scores");
+        }
+        byte[] body = response.body();
+        int start = 0;
+        while (start < body.length && body[start] != '{') {
+            start++;
         }
+        JsonParser.ScoreMessage row = new JsonParser.ScoreMessage();
+        boolean haveRow = start < body.length && JsonParser.parseScoreColumns(body, start, body.length - start, row);
+        
+        boolean red = "RED_SCORER".equals(deviceRole);
+        String prefix = red ? "red_" : "blue_";
+        match.update(m -> {
+            DecodeScore score = red ? m.getRedScore() : m.getBlueScore();
+            if (haveRow && (red ? row.hasRed : row.hasBlue)) {
+                JsonParser.applyAllianceFields(score, red ? row.red : row.blue, red ? row.redMask : row.blueMask);
+            }
+            for (ScoreField field : ScoreField.ALL) {
+                Object value = pending.get(prefix + field.getColumnName());
+                if (value instanceof Integer) {
+                    field.set(score, (Integer) value);
+                }
+            }
+        });
+        System.out.println("Cloud sync: restored " + pending.size() + " unsent changes from the journal");
     }
     
     /**
-     * Count connected devices (host only)
+     * Fetch score data from cloud
      */
-    private void countConnectedDevices() throws Exception {
-        // Count devices that have been seen in the last 30 seconds
-        String cutoff = java.time.Instant.now().minusSeconds(30).toString();
-        
+    private CompletableFuture<Void> fetchScoreData() {
+        // Only the columns applyScoreRow reads, and only if the row changed since the last fetch.
+        // updated_at is not guaranteed to grow (older databases stamp NOW(), the transaction
+        // start), so every FULL_FETCH_INTERVAL_MS the row is fetched whatever its stamp.
+        String since = lastSeenUpdatedAt;
+        long now = System.nanoTime();
+        if (since != null && now - nextFullFetchNanos >= 0) {
+            nextFullFetchNanos = now + TimeUnit.MILLISECONDS.toNanos(FULL_FETCH_INTERVAL_MS);
+            fullFetches.incrementAndGet();
+            since = null;
+        }
+        String uri = supabaseUrl + "/rest/v1/events?event_name=eq." + eventName + "&select=" + SCORE_SELECT;
+        if (since != null) {
+            uri += "&updated_at=gt." + URLEncoder.encode(since, StandardCharsets.UTF_8);
+        }
         HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(supabaseUrl + "/rest/v1/connected_devices?event_name=eq." + eventName + 
-                               "&last_seen=gte." + cutoff + "&select=device_role"))
+                .uri(URI.create(uri))
                 .header("apikey", supabaseKey)
                 .header("Authorization", "Bearer " + supabaseKey)
                 .header("Accept", "application/json")
                 .GET()
+                .timeout(REQUEST_TIMEOUT)
                 .build();
         
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        
-        if (response.statusCode() == 200) {
-            // Count occurrences of device_role
-            String body = response.body();
-            int count = 0;
-            int idx = 0;
-            while ((idx = body.indexOf("\"device_role\"", idx)) != -1) {
-                count++;
-                idx++;
-            }
+        // Parsed on the sync thread, which owns the parser scratch space
+        return sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenAcceptAsync(response -> {
+            fetchedBytes.addAndGet(response.body().length);
             
-            if (count != connectedDevices) {
-                connectedDevices = count;
-                if (onDeviceListUpdate != null) {
-                    Platform.runLater(onDeviceListUpdate);
-                }
+            // An unchanged row comes back as [] - nothing to parse
+            if (connected && response.statusCode() == 200 && response.body().length > 2) {
+                applyScoreData(response.body());
             }
+        }, scheduler);
+    }
+    
+    /**
+     * Column list for fetches: motif, state, teams, every score column and updated_at.
+     * Leaves out the audio/video signaling text, which is most of the row.
+     */
+    private static String buildScoreSelect() {
+        StringBuilder sb = new StringBuilder("motif,match_state,updated_at");
+        for (String team : TEAM_COLUMNS) {
+            sb.append(',').append(team);
         }
+        for (ScoreField field : ScoreField.ALL) {
+            sb.append(",red_").append(field.getColumnName());
+        }
+        for (ScoreField field : ScoreField.ALL) {
+            sb.append(",blue_").append(field.getColumnName());
+        }
+        return sb.toString();
     }
     
-    private void appendScoreFields(StringBuilder json, String prefix, DecodeScore score) {
-        json.append("\"").append(prefix).append("auto_classified\":").append(score.getAutoClassified()).append(",");
-        json.append("\"").append(prefix).append("auto_overflow\":").append(score.getAutoOverflow()).append(",");
-        json.append("\"").append(prefix).append("auto_pattern\":").append(score.getAutoPatternMatches()).append(",");
-        json.append("\"").append(prefix).append("teleop_classified\":").append(score.getTeleopClassified()).append(",");
-        json.append("\"").append(prefix).append("teleop_overflow\":").append(score.getTeleopOverflow()).append(",");
-        json.append("\"").append(prefix).append("teleop_depot\":").append(score.getTeleopDepot()).append(",");
-        json.append("\"").append(prefix).append("teleop_pattern\":").append(score.getTeleopPatternMatches()).append(",");
-        json.append("\"").append(prefix).append("robot1_leave\":").append(score.isRobot1Leave()).append(",");
-        json.append("\"").append(prefix).append("robot2_leave\":").append(score.isRobot2Leave()).append(",");
-        json.append("\"").append(prefix).append("robot1_base\":\"").append(score.getRobot1Base().name()).append("\",");
-        json.append("\"").append(prefix).append("robot2_base\":\"").append(score.getRobot2Base().name()).append("\",");
-        json.append("\"").append(prefix).append("major_fouls\":").append(score.getMajorFouls()).append(",");
-        json.append("\"").append(prefix).append("minor_fouls\":").append(score.getMinorFouls()).append(",");
+    /**
+     * Count connected scorers per role (host only). PostgREST counts on the server:
+     * a HEAD with "Prefer: count=exact" returns no rows, only the total after the
+     * slash in Content-Range (e.g. "0-1/2").
+     */
+    private CompletableFuture<Void> countConnectedDevices() {
+        // Count devices that have been seen in the last PRESENCE_WINDOW_S seconds
+        String cutoff = java.time.Instant.now().minusSeconds(PRESENCE_WINDOW_S).toString();
+        
+        CompletableFuture<?>[] counts = new CompletableFuture<?>[SCORER_ROLES.length];
+        for (int i = 0; i < SCORER_ROLES.length; i++) {
+            String role = SCORER_ROLES[i];
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(supabaseUrl + "/rest/v1/connected_devices?event_name=eq." + eventName +
+                                   "&device_role=eq." + role + "&last_seen=gte." + cutoff))
+                    .header("apikey", supabaseKey)
+                    .header("Authorization", "Bearer " + supabaseKey)
+                    .header("Prefer", "count=exact")
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(REQUEST_TIMEOUT)
+                    .build();
+            
+            counts[i] = sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenAccept(response -> {
+                int count = parseContentRangeTotal(response.headers().firstValue("Content-Range").orElse(null));
+                if (count >= 0) {
+                    presence.update(role, count);
+                }
+            });
+        }
+        return CompletableFuture.allOf(counts).thenRun(this::updateConnectedDevices);
     }
     
     /**
-     * Apply fetched score data to local model
+     * Total after the slash of a Content-Range header such as "0-4/5", or -1 if the
+     * header is missing or the server did not count
      */
-    private void applyScoreData(String jsonArray) {
+    private static int parseContentRangeTotal(String contentRange) {
+        if (contentRange == null) {
+            return -1;
+        }
+        int slash = contentRange.lastIndexOf('/');
         try {
-            String json = jsonArray.substring(1, jsonArray.length() - 1);
-            if (json.isEmpty()) return;
-            
-            // Only apply scores we don't control
-            if (!"RED_SCORER".equals(deviceRole)) {
-                applyAllianceScore(match.getRedScore(), json, "red_");
+            return Integer.parseInt(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1; // "*" - the server did not count
+        }
+    }
+    
+    private void updateConnectedDevices() {
+        int count = presence.total();
+        if (count != connectedDevices) {
+            connectedDevices = count;
+            if (onDeviceListUpdate != null) {
+                notifier.execute(onDeviceListUpdate);
             }
-            if (!"BLUE_SCORER".equals(deviceRole)) {
-                applyAllianceScore(match.getBlueScore(), json, "blue_");
+        }
+    }
+    
+    /**
+     * Team columns of the wrapped row, null where a column is missing or null
+     */
+    private String[] fetchedTeams() {
+        String[] teams = new String[TEAM_COLUMNS.length];
+        for (int t = 0; t < TEAM_COLUMNS.length; t++) {
+            teams[t] = fetchedRow.getString(TEAM_COLUMNS[t]);
+        }
+        return teams;
+    }
+    
+    /**
+     * Columns just taken from the backend are already there - don't push them back
+     * @param redMask red fields that were applied
+     * @param blueMask blue fields that were applied
+     * @param motif motif that was applied, or null
+     */
+    private void noteFetchedColumns(int redMask, int blueMask, String motif) {
+        synchronized (pushLock) {
+            if (ackedRed != null) {
+                copyMasked(fetchedScores.red, redMask, ackedRed);
             }
-            
-            // Update motif
-            String motif = parseStringField(json, "motif");
-            if (motif != null && !motif.isEmpty()) {
-                try {
-                    DecodeScore.MotifType motifType = DecodeScore.MotifType.valueOf(motif);
-                    match.getRedScore().setMotif(motifType);
-                    match.getBlueScore().setMotif(motifType);
-                } catch (IllegalArgumentException ignored) {}
+            if (ackedBlue != null) {
+                copyMasked(fetchedScores.blue, blueMask, ackedBlue);
             }
-            
-            // Notify UI
-            if (onScoreUpdate != null) {
-                Platform.runLater(onScoreUpdate);
+            if (motif != null) {
+                ackedMotif = motif;
             }
-            
-        } catch (Exception e) {
-            System.err.println("Error parsing score data: " + e.getMessage());
         }
     }
     
-    private void applyAllianceScore(DecodeScore score, String json, String prefix) {
-        score.setAutoClassified(parseIntField(json, prefix + "auto_classified"));
-        score.setAutoOverflow(parseIntField(json, prefix + "auto_overflow"));
-        score.setAutoPatternMatches(parseIntField(json, prefix + "auto_pattern"));
-        score.setTeleopClassified(parseIntField(json, prefix + "teleop_classified"));
-        score.setTeleopOverflow(parseIntField(json, prefix + "teleop_overflow"));
-        score.setTeleopDepot(parseIntField(json, prefix + "teleop_depot"));
-        score.setTeleopPatternMatches(parseIntField(json, prefix + "teleop_pattern"));
-        score.setRobot1Leave(parseBoolField(json, prefix + "robot1_leave"));
-        score.setRobot2Leave(parseBoolField(json, prefix + "robot2_leave"));
-        score.setMajorFouls(parseIntField(json, prefix + "major_fouls"));
-        score.setMinorFouls(parseIntField(json, prefix + "minor_fouls"));
-        
-        String base1 = parseStringField(json, prefix + "robot1_base");
-        String base2 = parseStringField(json, prefix + "robot2_base");
-        if (base1 != null) {
-            try { score.setRobot1Base(DecodeScore.BaseStatus.valueOf(base1)); } 
-            catch (IllegalArgumentException ignored) {}
+    /**
+     * Apply the fetched fields like JsonParser.applyAllianceFields, except those whose
+     * local value differs from what this device last had acknowledged or has in flight.
+     * A local edit the backend has not confirmed wins over the row, which may be an
+     * echo from before the edit. So does a confirmed one if the row is stamped before
+     * the write that confirmed it: a fetch or a Realtime push can arrive after the ack
+     * and still carry the value we overwrote. That needs updated_at to follow commit
+     * order, which the clock_timestamp() trigger gives (migration-updated-at-clock.sql).
+     * @param acked last acknowledged values, or null if this device has none
+     * @param pushing values of the push in flight, or null
+     * @param writtenAt stamp of our last acknowledged write of each field, or null
+     * @param rowStamp the row's updated_at, see parseStamp
+     * @return mask of the fetched fields applied
+     */
+    private static int applyUnlessEdited(DecodeScore score, int[] fetched, int mask, int[] acked, int[] pushing,
+                                         long[] writtenAt, long rowStamp) {
+        int applied = 0;
+        for (ScoreField field : ScoreField.ALL) {
+            int i = field.ordinal();
+            int local = field.get(score);
+            if ((acked != null && local != acked[i]) || (pushing != null && local != pushing[i])) {
+                continue; // Not confirmed yet - the next push carries it
+            }
+            if (writtenAt != null && rowStamp < writtenAt[i]) {
+                continue; // The row predates our own write of this field
+            }
+            if ((mask & (1 << i)) != 0) {
+                field.set(score, fetched[i]);
+                applied |= 1 << i;
+            } else if (field.getKind() != ScoreField.Kind.BASE) {
+                field.set(score, 0);
+            }
         }
-        if (base2 != null) {
-            try { score.setRobot2Base(DecodeScore.BaseStatus.valueOf(base2)); } 
-            catch (IllegalArgumentException ignored) {}
+        return applied;
+    }
+    
+    private static void copyMasked(int[] values, int mask, int[] into) {
+        for (int i = 0; i < into.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                into[i] = values[i];
+            }
         }
     }
     
-    // JSON parsing helpers
-    private int parseIntField(String json, String field) {
-        try {
-            String pattern = "\"" + field + "\":";
-            int start = json.indexOf(pattern);
-            if (start < 0) return 0;
-            start += pattern.length();
-            int end = start;
-            while (end < json.length() && (Character.isDigit(json.charAt(end)) || json.charAt(end) == '-')) {
-                end++;
-            }
-            return Integer.parseInt(json.substring(start, end));
-        } catch (Exception e) {
-            return 0;
+    /**
+     * Turn an HTTP error status into a failed stage, so the sync tick backs off
+     */
+    private static <T> HttpResponse<T> checkStatus(HttpResponse<T> response) {
+        if (response.statusCode() >= 400) {
+            throw new CompletionException(new IOException("HTTP " + response.statusCode() + " from " + response.uri().getPath()));
         }
+        return response;
     }
     
-    private boolean parseBoolField(String json, String field) {
-        return json.contains("\"" + field + "\":true");
+    private void appendTeams(JsonWriter json) {
+        String[] teams = currentTeams();
+        for (int t = 0; t < TEAM_COLUMNS.length; t++) {
+            json.name(TEAM_COLUMNS[t]).value(teams[t]);
+        }
     }
     
-    private String parseStringField(String json, String field) {
-        try {
-            String pattern = "\"" + field + "\":\"";
-            int start = json.indexOf(pattern);
-            if (start < 0) return null;
-            start += pattern.length();
-            int end = json.indexOf("\"", start);
-            if (end < 0) return null;
-            return json.substring(start, end);
-        } catch (Exception e) {
-            return null;
+    /**
+     * Apply fetched score data to local model
+     */
+    private void applyScoreData(byte[] jsonArray) {
+        // The response is an array holding the event's row
+        int start = 0;
+        while (start < jsonArray.length && jsonArray[start] != '{') {
+            start++;
         }
+        if (start == jsonArray.length) return;
+        applyScoreRow(jsonArray, start, jsonArray.length - start);
     }
     
-    private String escapeJson(String s) {
-        if (s == null) return "";
-        return s.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t");
+    /**
+     * Apply one events row (fetched or pushed) to the local model. Sync thread only.
+     */
+    private void applyScoreRow(byte[] data, int start, int length) {
+        if (!JsonParser.parseScoreColumns(data, start, length, fetchedScores)
+            || !fetchedRow.wrap(data, start, length)) {
+            System.err.println("Error parsing score data");
+            return;
+        }
+        String motif = fetchedRow.getString("motif");
+        String updatedAt = fetchedRow.getString("updated_at");
+        String[] teams = "HOST".equals(deviceRole) ? null : fetchedTeams();
+        for (Match.MatchState state : Match.MatchState.values()) {
+            if (fetchedRow.stringEquals("match_state", state.name())) {
+                remoteState = state;
+                break;
+            }
+        }
+        
+        // What this device has written, so the row cannot undo edits still on their way
+        boolean host = "HOST".equals(deviceRole);
+        int[] ackedRedNow;
+        int[] ackedBlueNow;
+        int[] pushingRedNow;
+        int[] pushingBlueNow;
+        String ackedMotifNow;
+        String pushingMotifNow;
+        long[] redWrittenAtNow;
+        long[] blueWrittenAtNow;
+        long motifWrittenAtNow;
+        synchronized (pushLock) {
+            ackedRedNow = ackedRed != null ? ackedRed.clone() : null;
+            ackedBlueNow = ackedBlue != null ? ackedBlue.clone() : null;
+            pushingRedNow = pushingRed;
+            pushingBlueNow = pushingBlue;
+            ackedMotifNow = ackedMotif;
+            pushingMotifNow = pushingMotif;
+            redWrittenAtNow = redWrittenAt != null ? redWrittenAt.clone() : null;
+            blueWrittenAtNow = blueWrittenAt != null ? blueWrittenAt.clone() : null;
+            motifWrittenAtNow = motifWrittenAt;
+        }
+        long rowStamp = parseStamp(updatedAt);
+        int[] applied = new int[2];
+        String[] appliedMotif = new String[1];
+        
+        // Apply as one change so readers never see half of a fetched row
+        long before = match.getSnapshot().getVersion();
+        ScoreSnapshot after = match.update(m -> {
+            // Only apply scores we don't control
+            if (!"RED_SCORER".equals(deviceRole) && fetchedScores.hasRed) {
+                applied[0] = applyUnlessEdited(m.getRedScore(), fetchedScores.red, fetchedScores.redMask,
+                                               ackedRedNow, pushingRedNow, redWrittenAtNow, rowStamp);
+            }
+            if (!"BLUE_SCORER".equals(deviceRole) && fetchedScores.hasBlue) {
+                applied[1] = applyUnlessEdited(m.getBlueScore(), fetchedScores.blue, fetchedScores.blueMask,
+                                               ackedBlueNow, pushingBlueNow, blueWrittenAtNow, rowStamp);
+            }
+            
+            // Team numbers belong to the host
+            if (teams != null) {
+                if (teams[0] != null) m.setRedTeam1Number(teams[0]);
+                if (teams[1] != null) m.setRedTeam2Number(teams[1]);
+                if (teams[2] != null) m.setBlueTeam1Number(teams[2]);
+                if (teams[3] != null) m.setBlueTeam2Number(teams[3]);
+            }
+            
+            // Update motif, unless the host changed it and the backend has not confirmed that yet
+            String local = m.getRedScore().getMotif().name();
+            boolean edited = host && ((ackedMotifNow != null && !local.equals(ackedMotifNow))
+                                      || (pushingMotifNow != null && !local.equals(pushingMotifNow))
+                                      || rowStamp < motifWrittenAtNow);
+            if (motif != null && !motif.isEmpty() && !edited) {
+                try {
+                    DecodeScore.MotifType motifType = DecodeScore.MotifType.valueOf(motif);
+                    m.getRedScore().setMotif(motifType);
+                    m.getBlueScore().setMotif(motifType);
+                    appliedMotif[0] = motif;
+                } catch (IllegalArgumentException ignored) {}
+            }
+        });
+        if (lastSyncedVersion == before) {
+            lastSyncedVersion = after.getVersion(); // Cloud state is not a local change to push
+        }
+        noteFetchedColumns(applied[0], applied[1], appliedMotif[0]);
+        if (updatedAt != null) {
+            lastSeenUpdatedAt = updatedAt;
+        }
+        
+        // Notify UI
+        if (onScoreUpdate != null) {
+            notifier.execute(onScoreUpdate);
+        }
     }
     
     // Getters and setters
     
+    /**
+     * Where onScoreUpdate and the other callbacks run (default: the calling thread).
+     * UI code passes FxNotifications.coalescing() to get them on the FX thread.
+     */
+    public void setNotificationExecutor(NotificationExecutor notifier) {
+        this.notifier = notifier;
+    }
+    
     public void setOnScoreUpdate(Runnable callback) {
         this.onScoreUpdate = callback;
     }
@@ -758,7 +1530,7 @@ public class CloudSyncService {
     
     private void notifyConnectionChange() {
         if (onConnectionChange != null) {
-            Platform.runLater(onConnectionChange);
+            notifier.execute(onConnectionChange);
         }
     }
     
@@ -782,10 +1554,113 @@ public class CloudSyncService {
         return connectedDevices;
     }
     
+    /**
+     * Connected devices with this role (e.g. "RED_SCORER"), as last counted by the host.
+     * 0 once the count is older than PRESENCE_TTL_MS.
+     */
+    public int getConnectedDevices(String role) {
+        return presence.count(role);
+    }
+    
     public String getLastSyncTime() {
         return lastSyncTime;
     }
     
+    /**
+     * Response bytes downloaded by row fetches in this process
+     */
+    public long getFetchedBytes() {
+        return fetchedBytes.get();
+    }
+    
+    /**
+     * Fetches that ignored updated_at to catch rows stamped out of order
+     */
+    public long getFullFetches() {
+        return fullFetches.get();
+    }
+    
+    /**
+     * Number of score PATCHes sent
+     */
+    public long getScorePushCount() {
+        return scorePushes.get();
+    }
+    
+    /**
+     * Number of pushes skipped because the backend already had every column
+     */
+    public long getSkippedPushCount() {
+        return skippedPushes.get();
+    }
+    
+    /**
+     * Column writes waiting for the backend, e.g. while the uplink is down
+     */
+    public int getPendingWrites() {
+        return pendingWrites;
+    }
+    
+    /**
+     * How long the oldest unsent write has been waiting, 0 if none
+     */
+    public long getOldestPendingAgeMillis() {
+        long oldest = oldestPendingMillis;
+        return oldest == 0 ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+    
+    /**
+     * Where unsent cloud writes are journaled (default ~/.stream-scorer); null turns
+     * the journal off. Takes effect on the next create/join.
+     */
+    public void setJournalDirectory(Path directory) {
+        this.journalDirectory = directory;
+    }
+    
+    /**
+     * Time between syncs right now: follows the match phase, or the backoff after errors
+     */
+    public long getEffectiveIntervalMs() {
+        return effectiveIntervalMs;
+    }
+    
+    /**
+     * Consecutive failed syncs (0 when the last one worked)
+     */
+    public int getConsecutiveFailures() {
+        return failures;
+    }
+    
+    /**
+     * Duration of the last sync tick, from its first request to its last response
+     */
+    public double getLastTickMillis() {
+        return lastTickMicros / 1000.0;
+    }
+    
+    /**
+     * Tick duration percentile (e.g. 50, 99) over the last TICK_WINDOW ticks
+     */
+    public double getTickMillis(double percentile) {
+        synchronized (tickTimes) {
+            return tickTimes.percentileMicros(percentile) / 1000.0;
+        }
+    }
+    
+    /**
+     * Number of ticks skipped because the previous one was still running
+     */
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+    
+    /**
+     * Sync requests currently waiting on the backend
+     */
+    public int getInFlightRequests() {
+        return MAX_IN_FLIGHT - inFlight.availablePermits();
+    }
+    
     public boolean isHost() {
         return "HOST".equals(deviceRole);
     }
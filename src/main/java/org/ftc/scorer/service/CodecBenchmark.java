@@ -0,0 +1,288 @@
+package org.ftc.scorer.service;
+
+import org.ftc.scorer.model.DecodeScore;
+import org.ftc.scorer.model.ScoreField;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Standalone benchmark for the score message codec, standing in for JMH (which is
+ * not part of this build). Compares, per message, time and bytes allocated by the
+ * current thread (ThreadMXBean.getThreadAllocatedBytes, like JMH's -prof gc):
+ *
+ *   parse   a client SCORE_UPDATE: String decode plus one indexOf scan per field,
+ *           against JsonParser.parseScoreMessage over the raw bytes
+ *   write   a server SCORE_UPDATE snapshot: StringBuilder plus getBytes, against
+ *           ScoreCodec into a JsonWriter, both written to a discarding stream
+ *
+ * Before measuring it checks that both writers produce identical bytes and both
+ * parsers read identical values on random states, and exits with status 1 if not.
+ * Lives in this package because the codec is package-private.
+ *
+ * Usage:
+ *   java -cp target/classes org.ftc.scorer.service.CodecBenchmark [options]
+ *
+ * Options:
+ *   --messages N   messages per round (default 2000000)
+ *   --rounds N     measured rounds, after one warmup round (default 3)
+ *   --states N     random states checked before measuring (default 20000)
+ */
+public class CodecBenchmark {
+    private static final String[] BASE_NAMES = names();
+    private static final int STATES = 64;   // Distinct messages cycled through while measuring
+    
+    private static volatile long sink;      // Keeps results alive so the JIT cannot drop the work
+    
+    public static void main(String[] args) throws IOException {
+        int messages = 2_000_000;
+        int rounds = 3;
+        int checkStates = 20_000;
+        
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--messages": messages = Integer.parseInt(args[++i]); break;
+                case "--rounds": rounds = Integer.parseInt(args[++i]); break;
+                case "--states": checkStates = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    System.exit(2);
+            }
+        }
+        
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        Random random = new Random(42);
+        if (!verify(random, checkStates)) {
+            System.exit(1);
+        }
+        System.out.println("Verified " + checkStates + " random states: output and parsed values match");
+        
+        int[][] red = new int[STATES][];
+        int[][] blue = new int[STATES][];
+        byte[][] updates = new byte[STATES][];
+        for (int i = 0; i < STATES; i++) {
+            red[i] = randomAlliance(random);
+            blue[i] = randomAlliance(random);
+            updates[i] = clientUpdate(i, red[i]).toByteArray();
+        }
+        
+        OutputStream discard = OutputStream.nullOutputStream();
+        Case[] cases = {
+            new Case("parse  per-field scans", n -> {
+                for (int i = 0; i < n; i++) {
+                    sink += parseByFields(updates[i % STATES]);
+                }
+            }),
+            new Case("parse  one pass", n -> {
+                JsonParser.ScoreMessage parsed = new JsonParser.ScoreMessage();
+                for (int i = 0; i < n; i++) {
+                    byte[] update = updates[i % STATES];
+                    JsonParser.parseScoreMessage(update, 0, update.length, parsed);
+                    sink += parsed.fields[ScoreField.TELEOP_CLASSIFIED.ordinal()];
+                }
+            }),
+            new Case("write  StringBuilder", n -> {
+                for (int i = 0; i < n; i++) {
+                    byte[] line = (buildWithStringBuilder(i, red[i % STATES], blue[i % STATES]) + "\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                    discard.write(line);
+                }
+            }),
+            new Case("write  ScoreCodec", n -> {
+                for (int i = 0; i < n; i++) {
+                    buildWithCodec(i, red[i % STATES], blue[i % STATES]).writeLine(discard);
+                }
+            })
+        };
+        
+        for (Case c : cases) {
+            c.body.run(messages); // Warmup
+        }
+        System.out.printf("%-24s %12s %12s%n", "", "ns/msg", "B/msg");
+        for (int round = 1; round <= rounds; round++) {
+            for (Case c : cases) {
+                long thread = Thread.currentThread().getId();
+                long bytesBefore = threads.getThreadAllocatedBytes(thread);
+                long start = System.nanoTime();
+                c.body.run(messages);
+                long elapsed = System.nanoTime() - start;
+                long allocated = threads.getThreadAllocatedBytes(thread) - bytesBefore;
+                System.out.printf("%-24s %12.1f %12.1f%n", c.name + " #" + round,
+                    (double) elapsed / messages, (double) allocated / messages);
+            }
+        }
+    }
+    
+    /**
+     * Both writers and both parsers must agree before their speed means anything
+     */
+    private static boolean verify(Random random, int count) throws IOException {
+        JsonParser.ScoreMessage parsed = new JsonParser.ScoreMessage();
+        for (int i = 0; i < count; i++) {
+            int[] red = randomAlliance(random);
+            int[] blue = randomAlliance(random);
+            
+            String expected = buildWithStringBuilder(i, red, blue);
+            String actual = buildWithCodec(i, red, blue).toString();
+            if (!expected.equals(actual)) {
+                System.err.println("Serializers differ:\n  " + expected + "\n  " + actual);
+                return false;
+            }
+            
+            byte[] update = clientUpdate(i, red).toByteArray();
+            if (!JsonParser.parseScoreMessage(update, 0, update.length, parsed)
+                    || !Arrays.equals(parsed.fields, red)
+                    || !Arrays.equals(fieldsByScan(new String(update, StandardCharsets.UTF_8)), red)) {
+                System.err.println("Parsers differ on " + new String(update, StandardCharsets.UTF_8));
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Server snapshot as SyncServer built it before ScoreCodec
+     */
+    private static String buildWithStringBuilder(long seq, int[] red, int[] blue) {
+        StringBuilder sb = new StringBuilder(768);
+        sb.append("{\"type\":\"SCORE_UPDATE\",");
+        sb.append("\"seq\":").append(seq).append(",");
+        sb.append("\"redScore\":").append(total(red)).append(",");
+        sb.append("\"blueScore\":").append(total(blue)).append(",");
+        sb.append("\"red\":");
+        appendFields(sb, red);
+        sb.append(",");
+        sb.append("\"blue\":");
+        appendFields(sb, blue);
+        sb.append("}");
+        return sb.toString();
+    }
+    
+    private static void appendFields(StringBuilder sb, int[] values) {
+        sb.append("{");
+        boolean first = true;
+        for (ScoreField field : ScoreField.ALL) {
+            if (!first) sb.append(",");
+            sb.append("\"").append(field.getJsonName()).append("\":");
+            int value = values[field.ordinal()];
+            switch (field.getKind()) {
+                case FLAG: sb.append(value != 0); break;
+                case BASE: sb.append('"').append(BASE_NAMES[value]).append('"'); break;
+                default: sb.append(value); break;
+            }
+            first = false;
+        }
+        sb.append("}");
+    }
+    
+    /**
+     * Server snapshot as SyncServer.buildScoreMessage builds it now
+     */
+    private static JsonWriter buildWithCodec(long seq, int[] red, int[] blue) {
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject();
+        json.name("type").value("SCORE_UPDATE");
+        json.name("seq").value(seq);
+        json.name("redScore").value(total(red));
+        json.name("blueScore").value(total(blue));
+        json.name("red");
+        ScoreCodec.writeObject(json, red, null);
+        json.name("blue");
+        ScoreCodec.writeObject(json, blue, null);
+        json.endObject();
+        return json;
+    }
+    
+    /**
+     * Client score update as SyncClient.sendScoreUpdate builds it
+     */
+    private static JsonWriter clientUpdate(long cseq, int[] values) {
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject();
+        json.name("type").value("SCORE_UPDATE");
+        json.name("cseq").value(cseq);
+        json.name("alliance").value("RED");
+        ScoreCodec.writeFields(json, ScoreCodec.Naming.PROTOCOL, values, null);
+        json.endObject();
+        return json;
+    }
+    
+    /**
+     * Client update read the way SyncServer read it before parseScoreMessage:
+     * a String line, then one scan per field
+     */
+    private static int parseByFields(byte[] line) {
+        return fieldsByScan(new String(line, StandardCharsets.UTF_8))[ScoreField.TELEOP_CLASSIFIED.ordinal()];
+    }
+    
+    private static int[] fieldsByScan(String message) {
+        int[] values = new int[ScoreField.COUNT];
+        for (ScoreField field : ScoreField.ALL) {
+            int value;
+            switch (field.getKind()) {
+                case FLAG:
+                    value = JsonParser.parseBoolField(message, field.getJsonName()) ? 1 : 0;
+                    break;
+                case BASE:
+                    String base = JsonParser.parseStringField(message, field.getJsonName());
+                    value = base != null ? DecodeScore.BaseStatus.valueOf(base).ordinal() : 0;
+                    break;
+                default:
+                    value = JsonParser.parseIntField(message, field.getJsonName());
+                    break;
+            }
+            values[field.ordinal()] = value;
+        }
+        return values;
+    }
+    
+    private static int[] randomAlliance(Random random) {
+        int[] values = new int[ScoreField.COUNT];
+        for (ScoreField field : ScoreField.ALL) {
+            switch (field.getKind()) {
+                case FLAG: values[field.ordinal()] = random.nextInt(2); break;
+                case BASE: values[field.ordinal()] = random.nextInt(BASE_NAMES.length); break;
+                default: values[field.ordinal()] = random.nextInt(40); break;
+            }
+        }
+        return values;
+    }
+    
+    private static int total(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+    
+    private static String[] names() {
+        DecodeScore.BaseStatus[] statuses = DecodeScore.BaseStatus.values();
+        String[] names = new String[statuses.length];
+        for (int i = 0; i < statuses.length; i++) {
+            names[i] = statuses[i].name();
+        }
+        return names;
+    }
+    
+    private interface Body {
+        void run(int messages) throws IOException;
+    }
+    
+    private static final class Case {
+        final String name;
+        final Body body;
+        
+        Case(String name, Body body) {
+            this.name = name;
+            this.body = body;
+        }
+    }
+}
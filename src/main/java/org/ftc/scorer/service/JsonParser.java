@@ -1,13 +1,27 @@
 package org.ftc.scorer.service;
 
+import org.ftc.scorer.model.DecodeScore;
+import org.ftc.scorer.model.ScoreField;
+
+import java.nio.charset.StandardCharsets;
+
 /**
  * Simple JSON parsing utilities for sync protocol messages.
  * This is a lightweight parser for the sync protocol - no external dependencies needed.
  * 
  * Note: This parser is designed for the specific JSON structure used in score syncing.
  * It handles basic integer, boolean, and string fields but is not a full JSON parser.
+ * 
+ * The String helpers below search the whole message once per field. The sync
+ * read paths skip the String altogether: parseScoreMessage() and MessageView
+ * work on the raw UTF-8 bytes of a received line, in a single pass and without
+ * allocating. Only string values the caller asks for are ever decoded.
  */
 public final class JsonParser {
+    // Which part of a ScoreMessage a parsed field goes into
+    private static final int FIELDS = 0;
+    private static final int RED = 1;
+    private static final int BLUE = 2;
     
     private JsonParser() {
         // Utility class - no instantiation
@@ -124,4 +138,437 @@ public final class JsonParser {
         if (end <= start) return null;
         return json.substring(start, end);
     }
+    
+    /**
+     * Read a score message in one pass, without allocating.
+     * ScoreField keys at the top level go into out.fields; keys inside a top-level
+     * "red":{...} or "blue":{...} object go into out.red / out.blue. A top-level
+     * "seq" number goes into out.seq. Other keys and nested values are skipped.
+     * 
+     * Values use the ScoreField int form: numbers as-is, true/false as 1/0 and
+     * BaseStatus names as the ordinal. A BASE value that is not a known status
+     * is left out of the mask.
+     * 
+     * @param data UTF-8 message bytes, e.g. straight from a socket read buffer
+     * @param out reset and filled in; reuse one per thread to stay allocation-free
+     * @return false if the message is not a well-formed JSON object
+     */
+    static boolean parseScoreMessage(byte[] data, int offset, int length, ScoreMessage out) {
+        return parse(data, offset, length, out, false);
+    }
+    
+    /**
+     * Read a cloud events row: top-level "red_..." and "blue_..." columns go into
+     * out.red / out.blue (hasRed / hasBlue are set if any column was found).
+     * Null columns are skipped like unknown keys.
+     */
+    static boolean parseScoreColumns(byte[] data, int offset, int length, ScoreMessage out) {
+        if (!parse(data, offset, length, out, true)) {
+            return false;
+        }
+        out.hasRed = out.redMask != 0;
+        out.hasBlue = out.blueMask != 0;
+        return true;
+    }
+    
+    private static boolean parse(byte[] data, int offset, int length, ScoreMessage out, boolean columns) {
+        out.reset();
+        int limit = offset + length;
+        int i = skipWhitespace(data, offset, limit);
+        if (i >= limit || data[i] != '{') return false;
+        i++;
+        
+        int object = FIELDS; // Which part of out the current object fills
+        while (true) {
+            i = skipWhitespace(data, i, limit);
+            if (i >= limit) return false;
+            byte c = data[i];
+            if (c == ',') {
+                i++;
+                continue;
+            }
+            if (c == '}') {
+                i++;
+                if (object == FIELDS) {
+                    return true;
+                }
+                object = FIELDS; // End of an alliance object
+                continue;
+            }
+            if (c != '"') return false;
+            
+            // Key
+            int keyStart = i + 1;
+            int keyEnd = skipString(data, i, limit);
+            if (keyEnd < 0) return false;
+            i = skipWhitespace(data, keyEnd + 1, limit);
+            if (i >= limit || data[i] != ':') return false;
+            i = skipWhitespace(data, i + 1, limit);
+            if (i >= limit) return false;
+            
+            int target = object;
+            int field;
+            if (object != FIELDS || !columns) {
+                field = ScoreCodec.fieldIndex(ScoreCodec.Naming.PROTOCOL, data, keyStart, keyEnd);
+            } else if ((field = ScoreCodec.fieldIndex(ScoreCodec.Naming.RED_COLUMNS, data, keyStart, keyEnd)) >= 0) {
+                target = RED;
+            } else {
+                field = ScoreCodec.fieldIndex(ScoreCodec.Naming.BLUE_COLUMNS, data, keyStart, keyEnd);
+                target = BLUE;
+            }
+            
+            c = data[i];
+            if (c == '{') {
+                if (object == FIELDS && !columns && matches(data, keyStart, keyEnd, "red")) {
+                    out.hasRed = true;
+                    object = RED;
+                    i++;
+                } else if (object == FIELDS && !columns && matches(data, keyStart, keyEnd, "blue")) {
+                    out.hasBlue = true;
+                    object = BLUE;
+                    i++;
+                } else {
+                    i = skipValue(data, i, limit);
+                    if (i < 0) return false;
+                }
+            } else if (c == '"') {
+                int end = skipString(data, i, limit);
+                if (end < 0) return false;
+                if (field >= 0 && ScoreField.ALL[field].getKind() == ScoreField.Kind.BASE) {
+                    int status = ScoreCodec.baseIndex(data, i + 1, end);
+                    if (status >= 0) {
+                        out.store(target, field, status);
+                    }
+                }
+                i = end + 1;
+            } else if (c == '-' || (c >= '0' && c <= '9')) {
+                int end = numberEnd(data, i, limit);
+                if (end < 0) return false;
+                long value = parseLong(data, i, end);
+                if (field >= 0) {
+                    out.store(target, field, (int) value);
+                } else if (object == FIELDS && matches(data, keyStart, keyEnd, "seq")) {
+                    out.seq = value;
+                }
+                i = skipValue(data, end, limit); // Ignore any fraction/exponent
+                if (i < 0) return false;
+            } else if (matches(data, i, Math.min(i + 4, limit), "true")) {
+                if (field >= 0) {
+                    out.store(target, field, 1);
+                }
+                i += 4;
+            } else if (matches(data, i, Math.min(i + 5, limit), "false")) {
+                if (field >= 0) {
+                    out.store(target, field, 0);
+                }
+                i += 5;
+            } else {
+                i = skipValue(data, i, limit); // null, arrays
+                if (i < 0) return false;
+            }
+        }
+    }
+    
+    /**
+     * Replace a whole alliance from parsed values: fields missing from mask become 0,
+     * except BASE fields, which keep their current status
+     */
+    static void applyAllianceFields(DecodeScore score, int[] values, int mask) {
+        for (ScoreField field : ScoreField.ALL) {
+            boolean present = (mask & (1 << field.ordinal())) != 0;
+            if (present) {
+                field.set(score, values[field.ordinal()]);
+            } else if (field.getKind() != ScoreField.Kind.BASE) {
+                field.set(score, 0);
+            }
+        }
+    }
+    
+    /**
+     * True if data[start, end) holds exactly the ASCII text
+     */
+    private static boolean matches(byte[] data, int start, int end, String ascii) {
+        if (end - start != ascii.length()) return false;
+        for (int i = 0; i < ascii.length(); i++) {
+            if (data[start + i] != ascii.charAt(i)) return false;
+        }
+        return true;
+    }
+    
+    private static int skipWhitespace(byte[] data, int i, int limit) {
+        while (i < limit && data[i] >= 0 && data[i] <= ' ') {
+            i++;
+        }
+        return i;
+    }
+    
+    /**
+     * @param i index of the opening quote
+     * @return index of the closing quote, or -1 if unterminated
+     */
+    private static int skipString(byte[] data, int i, int limit) {
+        // UTF-8 continuation bytes are never '"' or '\\', so multi-byte characters pass through
+        for (i++; i < limit; i++) {
+            byte c = data[i];
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Skip a value that is not read (string, number, literal, object or array)
+     * @return index just past the value, or -1 if it is malformed
+     */
+    private static int skipValue(byte[] data, int i, int limit) {
+        int depth = 0;
+        for (; i < limit; i++) {
+            byte c = data[i];
+            if (c == '"') {
+                i = skipString(data, i, limit);
+                if (i < 0) return -1;
+                if (depth == 0) return i + 1;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (depth == 0) return i; // End of the enclosing object
+                if (--depth == 0) return i + 1;
+            } else if (c == ',' && depth == 0) {
+                return i;
+            }
+        }
+        return depth == 0 ? i : -1;
+    }
+    
+    /**
+     * @return index just past the integer part of a number at i, or -1 if there are no digits
+     */
+    private static int numberEnd(byte[] data, int i, int limit) {
+        int start = i < limit && data[i] == '-' ? i + 1 : i;
+        int end = start;
+        while (end < limit && data[end] >= '0' && data[end] <= '9') {
+            end++;
+        }
+        return end == start ? -1 : end;
+    }
+    
+    private static long parseLong(byte[] data, int start, int end) {
+        boolean negative = data[start] == '-';
+        long value = 0;
+        for (int i = negative ? start + 1 : start; i < end; i++) {
+            value = value * 10 + (data[i] - '0');
+        }
+        return negative ? -value : value;
+    }
+    
+    /**
+     * Reusable result of parseScoreMessage. Only the fields whose bit
+     * (1 << ScoreField ordinal) is set in the matching mask are valid.
+     */
+    static final class ScoreMessage {
+        final int[] fields = new int[ScoreField.COUNT];
+        final int[] red = new int[ScoreField.COUNT];
+        final int[] blue = new int[ScoreField.COUNT];
+        int fieldMask;
+        int redMask;
+        int blueMask;
+        boolean hasRed;
+        boolean hasBlue;
+        long seq;
+        
+        void store(int target, int field, int value) {
+            switch (target) {
+                case RED: red[field] = value; redMask |= 1 << field; break;
+                case BLUE: blue[field] = value; blueMask |= 1 << field; break;
+                default: fields[field] = value; fieldMask |= 1 << field; break;
+            }
+        }
+        
+        void reset() {
+            fieldMask = 0;
+            redMask = 0;
+            blueMask = 0;
+            hasRed = false;
+            hasBlue = false;
+            seq = -1;
+        }
+    }
+    
+    /**
+     * Reusable index over the top-level keys of one message held as UTF-8 bytes.
+     * wrap() scans the message once; lookups then compare keys in place, and only
+     * getString() allocates. The bytes must not change while the view is in use.
+     */
+    static final class MessageView {
+        private static final int MAX_KEYS = 64; // A whole cloud events row
+        
+        private byte[] data;
+        private int count;
+        private int objectStart;   // The wrapped object, braces included
+        private int objectEnd;
+        private final int[] keyStart = new int[MAX_KEYS];
+        private final int[] keyEnd = new int[MAX_KEYS];
+        private final int[] valueStart = new int[MAX_KEYS];  // Inside the quotes for strings
+        private final int[] valueEnd = new int[MAX_KEYS];
+        private final boolean[] quoted = new boolean[MAX_KEYS];
+        
+        /**
+         * Index a message. Keys past MAX_KEYS are ignored.
+         * @return false if the message is not a well-formed JSON object
+         */
+        boolean wrap(byte[] data, int offset, int length) {
+            this.data = data;
+            this.count = 0;
+            int limit = offset + length;
+            int i = skipWhitespace(data, offset, limit);
+            if (i >= limit || data[i] != '{') return false;
+            objectStart = i;
+            i++;
+            
+            while (true) {
+                i = skipWhitespace(data, i, limit);
+                if (i >= limit) return false;
+                byte c = data[i];
+                if (c == '}') {
+                    objectEnd = i + 1;
+                    return true;
+                }
+                if (c == ',') {
+                    i++;
+                    continue;
+                }
+                if (c != '"') return false;
+                
+                int kEnd = skipString(data, i, limit);
+                if (kEnd < 0) return false;
+                int kStart = i + 1;
+                i = skipWhitespace(data, kEnd + 1, limit);
+                if (i >= limit || data[i] != ':') return false;
+                i = skipWhitespace(data, i + 1, limit);
+                if (i >= limit) return false;
+                
+                boolean isString = data[i] == '"';
+                int vStart = isString ? i + 1 : i;
+                int vEnd = isString ? skipString(data, i, limit) : skipValue(data, i, limit);
+                if (vEnd < 0) return false;
+                if (count < MAX_KEYS) {
+                    keyStart[count] = kStart;
+                    keyEnd[count] = kEnd;
+                    valueStart[count] = vStart;
+                    valueEnd[count] = vEnd;
+                    quoted[count] = isString;
+                    count++;
+                }
+                i = isString ? vEnd + 1 : vEnd;
+            }
+        }
+        
+        /**
+         * Re-index the view onto the object held by key, e.g. the "record" of a change event
+         * @return false if the key is missing or not a well-formed object (the view is then unusable)
+         */
+        boolean enter(String key) {
+            int k = find(key);
+            if (k < 0 || quoted[k] || data[valueStart[k]] != '{') {
+                count = 0;
+                return false;
+            }
+            return wrap(data, valueStart[k], valueEnd[k] - valueStart[k]);
+        }
+        
+        /**
+         * Offset of the wrapped object's opening brace in the message bytes
+         */
+        int start() {
+            return objectStart;
+        }
+        
+        /**
+         * Length of the wrapped object, braces included
+         */
+        int length() {
+            return objectEnd - objectStart;
+        }
+        
+        boolean has(String key) {
+            return find(key) >= 0;
+        }
+        
+        /**
+         * Number of keys indexed, for walking every member with keyAt/rawValueAt
+         */
+        int size() {
+            return count;
+        }
+        
+        /**
+         * Name of the k-th key, escapes left as they are
+         */
+        String keyAt(int k) {
+            return new String(data, keyStart[k], keyEnd[k] - keyStart[k], StandardCharsets.UTF_8);
+        }
+        
+        /**
+         * The k-th value as JSON text, quotes included for strings
+         */
+        String rawValueAt(int k) {
+            int start = quoted[k] ? valueStart[k] - 1 : valueStart[k];
+            int end = quoted[k] ? valueEnd[k] + 1 : valueEnd[k];
+            return new String(data, start, end - start, StandardCharsets.UTF_8);
+        }
+        
+        /**
+         * True if "type" is the given message type
+         */
+        boolean typeIs(String type) {
+            return stringEquals("type", type);
+        }
+        
+        /**
+         * True if the key holds a string equal to the ASCII text
+         */
+        boolean stringEquals(String key, String ascii) {
+            int k = find(key);
+            return k >= 0 && quoted[k] && matches(data, valueStart[k], valueEnd[k], ascii);
+        }
+        
+        /**
+         * Decoded string value, or null if the key is missing or not a string
+         */
+        String getString(String key) {
+            int k = find(key);
+            if (k < 0 || !quoted[k]) return null;
+            return new String(data, valueStart[k], valueEnd[k] - valueStart[k], StandardCharsets.UTF_8);
+        }
+        
+        /**
+         * Integer value, or missing if the key is absent or not a number
+         */
+        long getLong(String key, long missing) {
+            int k = find(key);
+            if (k < 0 || quoted[k]) return missing;
+            int end = numberEnd(data, valueStart[k], valueEnd[k]);
+            return end < 0 ? missing : parseLong(data, valueStart[k], end);
+        }
+        
+        /**
+         * ScoreField named by a string value, or null
+         */
+        ScoreField getScoreField(String key) {
+            int k = find(key);
+            if (k < 0 || !quoted[k]) return null;
+            int f = ScoreCodec.fieldIndex(ScoreCodec.Naming.PROTOCOL, data, valueStart[k], valueEnd[k]);
+            return f >= 0 ? ScoreField.ALL[f] : null;
+        }
+        
+        private int find(String key) {
+            for (int k = 0; k < count; k++) {
+                if (matches(data, keyStart[k], keyEnd[k], key)) return k;
+            }
+            return -1;
+        }
+    }
 }
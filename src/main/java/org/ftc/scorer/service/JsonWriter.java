@@ -0,0 +1,216 @@
+package org.ftc.scorer.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Growable UTF-8 buffer for writing one JSON message at a time.
+ * Commas between members are inserted automatically; keys written from
+ * pre-encoded bytes (see ScoreCodec) are copied in without any conversion.
+ *
+ * Not thread-safe - ScoreCodec.writer() hands out one per thread.
+ */
+final class JsonWriter {
+    private byte[] data;
+    private int length = 0;
+    private boolean needsComma = false;
+    
+    JsonWriter(int initialCapacity) {
+        this.data = new byte[initialCapacity];
+    }
+    
+    void reset() {
+        length = 0;
+        needsComma = false;
+    }
+    
+    JsonWriter beginObject() {
+        separate();
+        put((byte) '{');
+        needsComma = false;
+        return this;
+    }
+    
+    JsonWriter endObject() {
+        put((byte) '}');
+        needsComma = true;
+        return this;
+    }
+    
+    /**
+     * Member name from bytes that already hold the quoted key and colon
+     */
+    JsonWriter name(byte[] encodedKey) {
+        separate();
+        put(encodedKey, encodedKey.length);
+        needsComma = false;
+        return this;
+    }
+    
+    /**
+     * Member name that is plain ASCII and needs no escaping
+     */
+    JsonWriter name(String ascii) {
+        separate();
+        put((byte) '"');
+        for (int i = 0; i < ascii.length(); i++) {
+            put((byte) ascii.charAt(i));
+        }
+        put((byte) '"');
+        put((byte) ':');
+        needsComma = false;
+        return this;
+    }
+    
+    JsonWriter value(long value) {
+        separate();
+        if (value == Long.MIN_VALUE) {
+            String digits = Long.toString(value); // Cannot be negated
+            put(digits.getBytes(StandardCharsets.US_ASCII), digits.length());
+            needsComma = true;
+            return this;
+        }
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            data[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        needsComma = true;
+        return this;
+    }
+    
+    JsonWriter value(boolean value) {
+        separate();
+        if (value) {
+            put((byte) 't'); put((byte) 'r'); put((byte) 'u'); put((byte) 'e');
+        } else {
+            put((byte) 'f'); put((byte) 'a'); put((byte) 'l'); put((byte) 's'); put((byte) 'e');
+        }
+        needsComma = true;
+        return this;
+    }
+    
+    /**
+     * Quoted string, escaped and UTF-8 encoded; null is written as ""
+     */
+    JsonWriter value(String value) {
+        separate();
+        put((byte) '"');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"': put((byte) '\\'); put((byte) '"'); break;
+                    case '\\': put((byte) '\\'); put((byte) '\\'); break;
+                    case '\n': put((byte) '\\'); put((byte) 'n'); break;
+                    case '\r': put((byte) '\\'); put((byte) 'r'); break;
+                    case '\t': put((byte) '\\'); put((byte) 't'); break;
+                    default:
+                        if (c < 0x80) {
+                            put((byte) c);
+                        } else if (c < 0x800) {
+                            put((byte) (0xC0 | (c >> 6)));
+                            put((byte) (0x80 | (c & 0x3F)));
+                        } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                                   && Character.isLowSurrogate(value.charAt(i + 1))) {
+                            int cp = Character.toCodePoint(c, value.charAt(++i));
+                            put((byte) (0xF0 | (cp >> 18)));
+                            put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                            put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                            put((byte) (0x80 | (cp & 0x3F)));
+                        } else {
+                            put((byte) (0xE0 | (c >> 12)));
+                            put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                            put((byte) (0x80 | (c & 0x3F)));
+                        }
+                }
+            }
+        }
+        put((byte) '"');
+        needsComma = true;
+        return this;
+    }
+    
+    /**
+     * Value from bytes that are already valid JSON (e.g. a pre-encoded literal)
+     */
+    JsonWriter rawValue(byte[] encoded) {
+        separate();
+        put(encoded, encoded.length);
+        needsComma = true;
+        return this;
+    }
+    
+    int length() {
+        return length;
+    }
+    
+    /**
+     * The message plus its newline terminator in a read-only direct buffer,
+     * ready to be shared between connections (each writes from a duplicate())
+     */
+    ByteBuffer toFrame() {
+        ByteBuffer frame = ByteBuffer.allocateDirect(length + 1);
+        frame.put(data, 0, length);
+        frame.put((byte) '\n');
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+    
+    byte[] toByteArray() {
+        return Arrays.copyOf(data, length);
+    }
+    
+    /**
+     * Write the message and a newline terminator
+     */
+    void writeLine(OutputStream out) throws IOException {
+        put((byte) '\n');
+        try {
+            out.write(data, 0, length);
+        } finally {
+            length--;
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return new String(data, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    private void separate() {
+        if (needsComma) {
+            put((byte) ',');
+            needsComma = false;
+        }
+    }
+    
+    private void put(byte b) {
+        ensureCapacity(1);
+        data[length++] = b;
+    }
+    
+    private void put(byte[] bytes, int count) {
+        ensureCapacity(count);
+        System.arraycopy(bytes, 0, data, length, count);
+        length += count;
+    }
+    
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.ftc.scorer.service;
+
+/**
+ * Latency histogram over the most recent samples.
+ *
+ * Values are in microseconds and land in log-scaled buckets (exact below 16 us,
+ * then 8 buckets per power of two, so a percentile is within about 12%). Only the
+ * last windowSize samples count: each new sample pushes the oldest one out, so
+ * the percentiles follow the link as it gets better or worse.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 3;
+    private static final int LINEAR_LIMIT = 1 << (SUB_BITS + 1);   // 16
+    private static final int MAX_EXPONENT = 30;                    // ~18 minutes
+    private static final int BUCKETS = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BITS) * (1 << SUB_BITS);
+    
+    private final int[] counts = new int[BUCKETS];
+    private final int[] window;     // Bucket of each sample still in the window
+    private int next = 0;
+    private int size = 0;
+    private long total = 0;
+    
+    public LatencyHistogram(int windowSize) {
+        this.window = new int[windowSize];
+    }
+    
+    public void recordMicros(long micros) {
+        int bucket = bucketOf(micros);
+        if (size == window.length) {
+            counts[window[next]]--;
+        } else {
+            size++;
+        }
+        window[next] = bucket;
+        next = (next + 1) % window.length;
+        counts[bucket]++;
+        total++;
+    }
+    
+    /**
+     * Upper bound of the bucket holding the given percentile, 0 if there are no samples
+     * @param percentile 0-100
+     */
+    public long percentileMicros(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(size * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+    
+    /**
+     * Samples currently in the window
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Samples recorded since creation
+     */
+    public long getTotalCount() {
+        return total;
+    }
+    
+    private static int bucketOf(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (micros >> (exponent - SUB_BITS)) & ((1 << SUB_BITS) - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BITS - 1) * (1 << SUB_BITS) + sub;
+    }
+    
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_LIMIT) / (1 << SUB_BITS) + SUB_BITS + 1;
+        int sub = (bucket - LINEAR_LIMIT) % (1 << SUB_BITS);
+        long step = 1L << (exponent - SUB_BITS);
+        return (1L << exponent) + (sub + 1) * step - 1;
+    }
+}
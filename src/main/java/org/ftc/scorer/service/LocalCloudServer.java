@@ -0,0 +1,698 @@
+package org.ftc.scorer.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for the Supabase REST API (PostgREST), serving the subset
+ * CloudSyncService uses, so cloud sync can be load-tested and run without a project:
+ *
+ *   GET    /rest/v1/{table}?col=eq.V&select=a,b&limit=N   matching rows as a JSON array
+ *   HEAD   /rest/v1/{table}?filters                       with Prefer: count=exact, the
+ *                                                         total in Content-Range
+ *   POST   /rest/v1/{table}                               insert one row; with Prefer:
+ *                                                         resolution=merge-duplicates,
+ *                                                         update it if the key exists
+ *   PATCH  /rest/v1/{table}?filters                       update matching rows; with Prefer:
+ *                                                         return=representation, answer
+ *                                                         with them (select applies)
+ *   DELETE /rest/v1/{table}?filters                       delete matching rows
+ *
+ * Tables are events (keyed by event_name) and connected_devices (keyed by event_name
+ * and device_id). Filters are eq, neq, gt, gte, lt and lte; timestamps compare as
+ * instants and integers as numbers. events.updated_at is stamped on every write like
+ * the trigger in setup.sql. By default stamps strictly increase, like clock_timestamp();
+ * setStampSkewMs() makes them go back in time the way NOW() does when a transaction
+ * waits for the row lock, so "updated_at=gt." polling can be tested against that.
+ * Values are stored as the JSON text the client sent.
+ *
+ * Realtime: GET /realtime/v1/websocket upgrades to a websocket served by
+ * LocalRealtimeEndpoint, which pushes every events insert and update to the Phoenix
+ * channels filtered to that event. The JDK HttpServer cannot hand a connection over,
+ * so the listening port is a small front door: it reads the head of every request,
+ * hands websocket upgrades to the endpoint and relays everything else, request by
+ * request, to the HttpServer on a second loopback port.
+ *
+ * Not served: auth (apikey is ignored), ordering and embedded resources.
+ */
+public class LocalCloudServer {
+    private static final String PREFIX = "/rest/v1/";
+    private static final int SERVICE_WINDOW = 65536;
+    private static final int MAX_HEAD = 16384;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSxxx");
+    
+    /**
+     * One table: rows of column name to JSON text, unique on the key columns
+     */
+    private static final class Table {
+        final String[] key;
+        final boolean stampsUpdatedAt;   // The events table: stamped and published to Realtime
+        final List<Map<String, String>> rows = new ArrayList<>();
+        
+        Table(boolean stampsUpdatedAt, String... key) {
+            this.key = key;
+            this.stampsUpdatedAt = stampsUpdatedAt;
+        }
+        
+        Map<String, String> find(Map<String, String> row) {
+            for (Map<String, String> existing : rows) {
+                boolean same = true;
+                for (String column : key) {
+                    same &= row.get(column) != null && row.get(column).equals(existing.get(column));
+                }
+                if (same) return existing;
+            }
+            return null;
+        }
+    }
+    
+    private static final class Filter {
+        final String column;
+        final String op;
+        final String value;
+        
+        Filter(String column, String op, String value) {
+            this.column = column;
+            this.op = op;
+            this.value = value;
+        }
+        
+        boolean matches(Map<String, String> row) {
+            String raw = row.get(column);
+            if (raw == null || raw.equals("null")) {
+                return false; // SQL: comparisons with NULL are never true
+            }
+            int c = compare(unquote(raw), value);
+            switch (op) {
+                case "eq": return c == 0;
+                case "neq": return c != 0;
+                case "gt": return c > 0;
+                case "gte": return c >= 0;
+                case "lt": return c < 0;
+                case "lte": return c <= 0;
+                default: return false;
+            }
+        }
+    }
+    
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final Map<String, AtomicLong> requestsByRoute = new ConcurrentHashMap<>();
+    private final Object statsLock = new Object();
+    private LatencyHistogram serviceTimes = new LatencyHistogram(SERVICE_WINDOW); // Guarded by statsLock
+    private volatile int latencyMs = 0;
+    private volatile int stampSkewMs = 0;
+    private long lastStampMicros = 0;   // Guarded by this
+    private HttpServer server;
+    private ServerSocket listener;
+    private ExecutorService executor;
+    private LocalRealtimeEndpoint realtime;
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    
+    public LocalCloudServer() {
+        tables.put("events", new Table(true, "event_name"));
+        tables.put("connected_devices", new Table(false, "event_name", "device_id"));
+    }
+    
+    /**
+     * Listen on the loopback interface
+     * @param port 0 for any free port
+     */
+    public synchronized void start(int port) throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "LocalCloudServer");
+            t.setDaemon(true);
+            return t;
+        });
+        realtime = new LocalRealtimeEndpoint(executor);
+        realtime.setLatencyMs(latencyMs);
+        server = HttpServer.create(new InetSocketAddress(loopback, 0), 0);
+        server.setExecutor(executor);
+        server.createContext(PREFIX, this::handle);
+        server.start();
+        listener = new ServerSocket(port, 50, loopback);
+        ServerSocket accepting = listener;
+        executor.execute(() -> acceptLoop(accepting));
+    }
+    
+    public synchronized void stop() {
+        if (server != null) {
+            try {
+                listener.close();
+            } catch (IOException ignored) {}
+            realtime.dropConnections();
+            for (Socket socket : openSockets) {
+                closeQuietly(socket);
+            }
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+        }
+    }
+    
+    /**
+     * Base URL to hand to CloudSyncService.setCustomBackend
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + listener.getLocalPort();
+    }
+    
+    /**
+     * Delay every response, and every Realtime frame, by this much, to stand in for
+     * the round trip to a real project
+     */
+    public synchronized void setLatencyMs(int latencyMs) {
+        this.latencyMs = latencyMs;
+        if (realtime != null) {
+            realtime.setLatencyMs(latencyMs);
+        }
+    }
+    
+    /**
+     * Send phx_error on every joined Realtime channel, as when the server-side channel
+     * process crashes; subscribers fall back to polling until they rejoin
+     */
+    public void failRealtimeChannels() {
+        realtime.failChannels();
+    }
+    
+    /**
+     * Close every Realtime socket without a close frame, like a dropped network
+     */
+    public void dropRealtimeConnections() {
+        realtime.dropConnections();
+    }
+    
+    public int getRealtimeConnectionCount() {
+        return realtime.getConnectionCount();
+    }
+    
+    /**
+     * Channels joined since start, rejoins included
+     */
+    public long getRealtimeJoins() {
+        return realtime.getJoins();
+    }
+    
+    /**
+     * postgres_changes messages queued to subscribers since start
+     */
+    public long getRealtimeChangesSent() {
+        return realtime.getChangesSent();
+    }
+    
+    /**
+     * Stamp each events write up to this much before the time it is applied, as NOW()
+     * does for a transaction that started before it got the row lock. A write can then
+     * carry an older updated_at than the one before it. 0 (default) stamps strictly
+     * increasing times, like clock_timestamp().
+     */
+    public void setStampSkewMs(int stampSkewMs) {
+        this.stampSkewMs = stampSkewMs;
+    }
+    
+    public long getRequestCount() {
+        return requests.get();
+    }
+    
+    /**
+     * Requests per "METHOD table", e.g. "PATCH events"
+     */
+    public Map<String, Long> getRequestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestsByRoute.forEach((route, count) -> counts.put(route, count.get()));
+        return counts;
+    }
+    
+    /**
+     * Time from receiving a request to sending its response, added latency included
+     */
+    public double getServiceMillis(double percentile) {
+        synchronized (statsLock) {
+            return serviceTimes.percentileMicros(percentile) / 1000.0;
+        }
+    }
+    
+    public void resetStats() {
+        requests.set(0);
+        requestsByRoute.clear();
+        synchronized (statsLock) {
+            serviceTimes = new LatencyHistogram(SERVICE_WINDOW);
+        }
+    }
+    
+    private void acceptLoop(ServerSocket accepting) {
+        while (!accepting.isClosed()) {
+            try {
+                Socket socket = accepting.accept();
+                socket.setTcpNoDelay(true);
+                executor.execute(() -> route(socket));
+            } catch (IOException e) {
+                if (!accepting.isClosed()) {
+                    System.err.println("Local cloud server accept failed: " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                return; // Executor shut down by stop()
+            }
+        }
+    }
+    
+    /**
+     * Relay requests to the HttpServer one at a time, until one asks for a Realtime
+     * websocket: the JDK client may send that upgrade on a kept-alive connection
+     */
+    private void route(Socket client) {
+        openSockets.add(client);
+        Socket backend = null;
+        AtomicBoolean handedOver = new AtomicBoolean();
+        try {
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream toBackend = null;
+            while (true) {
+                byte[] head = readHead(in);
+                if (head == null) {
+                    return;
+                }
+                String text = new String(head, StandardCharsets.ISO_8859_1);
+                if (LocalRealtimeEndpoint.isUpgrade(text)) {
+                    if (backend != null) {
+                        handedOver.set(true);
+                        closeQuietly(backend);
+                    }
+                    realtime.serve(client, in, text);
+                    return;
+                }
+                
+                if (backend == null) {
+                    backend = new Socket(InetAddress.getLoopbackAddress(), server.getAddress().getPort());
+                    backend.setTcpNoDelay(true);
+                    openSockets.add(backend);
+                    toBackend = backend.getOutputStream();
+                    Socket from = backend;
+                    executor.execute(() -> relay(from, client, handedOver));
+                }
+                toBackend.write(head);
+                String chunked = header(text, "transfer-encoding");
+                if (chunked != null && chunked.toLowerCase(Locale.ROOT).contains("chunked")) {
+                    pipe(in, toBackend); // No request boundaries to find; relay the rest as it comes
+                    return;
+                }
+                String length = header(text, "content-length");
+                copy(in, toBackend, length != null ? Long.parseLong(length) : 0);
+                toBackend.flush();
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Either side went away, or a request we cannot relay
+        } catch (RuntimeException e) {
+            // Executor shut down by stop()
+        } finally {
+            closeQuietly(client);
+            if (backend != null) {
+                closeQuietly(backend);
+            }
+        }
+    }
+    
+    /**
+     * Responses from the HttpServer back to the client; the client socket stays open
+     * if it was handed over to Realtime
+     */
+    private void relay(Socket from, Socket to, AtomicBoolean handedOver) {
+        try {
+            pipe(from.getInputStream(), to.getOutputStream());
+        } catch (IOException e) {
+            // Either side went away
+        } finally {
+            closeQuietly(from);
+            if (!handedOver.get()) {
+                closeQuietly(to);
+            }
+        }
+    }
+    
+    private static void copy(InputStream in, OutputStream out, long length) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (length > 0) {
+            int n = in.read(buffer, 0, (int) Math.min(buffer.length, length));
+            if (n < 0) {
+                throw new IOException("Connection closed inside a request body");
+            }
+            out.write(buffer, 0, n);
+            length -= n;
+        }
+    }
+    
+    private static void pipe(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, n);
+            out.flush();
+        }
+    }
+    
+    /**
+     * Request line and headers, through the blank line, or null if the connection
+     * closed first or the head is too long
+     */
+    private static byte[] readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream(512);
+        int matched = 0;  // Of "\r\n\r\n"
+        while (matched < 4) {
+            int b = in.read();
+            if (b < 0 || head.size() >= MAX_HEAD) {
+                return null;
+            }
+            head.write(b);
+            matched = (b == '\r' && (matched == 0 || matched == 2)) || (b == '\n' && (matched == 1 || matched == 3))
+                ? matched + 1
+                : (b == '\r' ? 1 : 0);
+        }
+        return head.toByteArray();
+    }
+    
+    /**
+     * Value of a request header, or null
+     */
+    static String header(String head, String name) {
+        for (String line : head.split("\r\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase(name)) {
+                return line.substring(colon + 1).trim();
+            }
+        }
+        return null;
+    }
+    
+    private void closeQuietly(Socket socket) {
+        openSockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException ignored) {}
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            String method = exchange.getRequestMethod();
+            String name = exchange.getRequestURI().getPath().substring(PREFIX.length());
+            requests.incrementAndGet();
+            requestsByRoute.computeIfAbsent(method + " " + name, k -> new AtomicLong()).incrementAndGet();
+            
+            Table table = tables.get(name);
+            if (table == null) {
+                respond(exchange, 404, "{\"code\":\"42P01\",\"message\":\"relation \\\"" + name + "\\\" does not exist\"}");
+                return;
+            }
+            
+            // Query: filters plus select and limit
+            List<Filter> filters = new ArrayList<>();
+            String select = null;
+            int limit = -1;
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null) {
+                for (String part : query.split("&")) {
+                    int eq = part.indexOf('=');
+                    if (eq < 0) continue;
+                    String column = URLDecoder.decode(part.substring(0, eq), StandardCharsets.UTF_8);
+                    String value = URLDecoder.decode(part.substring(eq + 1), StandardCharsets.UTF_8);
+                    if (column.equals("select")) {
+                        select = value;
+                    } else if (column.equals("limit")) {
+                        limit = Integer.parseInt(value);
+                    } else if (!column.equals("order")) {
+                        int dot = value.indexOf('.');
+                        if (dot < 0) {
+                            respond(exchange, 400, "{\"message\":\"bad filter " + column + "\"}");
+                            return;
+                        }
+                        filters.add(new Filter(column, value.substring(0, dot), value.substring(dot + 1)));
+                    }
+                }
+            }
+            String prefer = exchange.getRequestHeaders().getFirst("Prefer");
+            
+            switch (method) {
+                case "GET":
+                case "HEAD":
+                    handleRead(exchange, table, filters, select, limit, method.equals("HEAD"), prefer);
+                    break;
+                case "POST":
+                    handleInsert(exchange, table, prefer);
+                    break;
+                case "PATCH":
+                    handleUpdate(exchange, table, filters, select, prefer);
+                    break;
+                case "DELETE":
+                    synchronized (table) {
+                        table.rows.removeAll(select(table, filters));
+                    }
+                    respond(exchange, 204, null);
+                    break;
+                default:
+                    respond(exchange, 405, null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Local cloud server error: " + e);
+            respond(exchange, 500, "{\"message\":\"" + e.getClass().getSimpleName() + "\"}");
+        } finally {
+            exchange.close();
+            synchronized (statsLock) {
+                serviceTimes.recordMicros((System.nanoTime() - start) / 1000);
+            }
+        }
+    }
+    
+    private void handleRead(HttpExchange exchange, Table table, List<Filter> filters, String select,
+                            int limit, boolean head, String prefer) throws IOException {
+        StringBuilder body = new StringBuilder("[");
+        int total;
+        synchronized (table) {
+            List<Map<String, String>> rows = select(table, filters);
+            total = rows.size();
+            int returned = limit >= 0 ? Math.min(limit, total) : total;
+            for (int i = 0; i < returned && !head; i++) {
+                if (i > 0) body.append(',');
+                body.append(toJson(rows.get(i), select));
+            }
+        }
+        body.append(']');
+        
+        if (prefer != null && prefer.contains("count=exact")) {
+            exchange.getResponseHeaders().add("Content-Range", total == 0 ? "*/0" : "0-" + (total - 1) + "/" + total);
+        }
+        if (head) {
+            exchange.sendResponseHeaders(200, -1);
+        } else {
+            respond(exchange, 200, body.toString());
+        }
+    }
+    
+    private void handleInsert(HttpExchange exchange, Table table, String prefer) throws IOException {
+        Map<String, String> row = readObject(exchange);
+        if (row == null) {
+            respond(exchange, 400, "{\"message\":\"expected a JSON object\"}");
+            return;
+        }
+        synchronized (table) {
+            Map<String, String> existing = table.find(row);
+            if (existing != null && (prefer == null || !prefer.contains("resolution=merge-duplicates"))) {
+                respond(exchange, 409, "{\"code\":\"23505\",\"message\":\"duplicate key value violates unique constraint\"}");
+                return;
+            }
+            if (existing != null) {
+                existing.putAll(row);
+                stamp(table, existing);
+                publish(table, existing, "UPDATE");
+            } else {
+                if (table.stampsUpdatedAt) {
+                    row.putIfAbsent("created_at", quote(now()));
+                } else {
+                    row.putIfAbsent("last_seen", quote(now()));
+                }
+                stamp(table, row);
+                table.rows.add(row);
+                publish(table, row, "INSERT");
+            }
+        }
+        respond(exchange, 201, null);
+    }
+    
+    private void handleUpdate(HttpExchange exchange, Table table, List<Filter> filters, String select,
+                              String prefer) throws IOException {
+        Map<String, String> changes = readObject(exchange);
+        if (changes == null) {
+            respond(exchange, 400, "{\"message\":\"expected a JSON object\"}");
+            return;
+        }
+        boolean representation = prefer != null && prefer.contains("return=representation");
+        StringBuilder body = new StringBuilder("[");
+        synchronized (table) {
+            for (Map<String, String> row : select(table, filters)) {
+                row.putAll(changes);
+                stamp(table, row);
+                publish(table, row, "UPDATE");
+                if (representation) {
+                    if (body.length() > 1) body.append(',');
+                    body.append(toJson(row, select));
+                }
+            }
+        }
+        body.append(']');
+        if (representation) {
+            respond(exchange, 200, body.toString());
+        } else {
+            respond(exchange, 204, null);
+        }
+    }
+    
+    private static List<Map<String, String>> select(Table table, List<Filter> filters) {
+        List<Map<String, String>> out = new ArrayList<>();
+        for (Map<String, String> row : table.rows) {
+            boolean all = true;
+            for (Iterator<Filter> it = filters.iterator(); all && it.hasNext(); ) {
+                all = it.next().matches(row);
+            }
+            if (all) out.add(row);
+        }
+        return out;
+    }
+    
+    /**
+     * Push an events row to Realtime subscribers (table lock held, so in write order)
+     */
+    private void publish(Table table, Map<String, String> row, String type) {
+        String eventName = row.get("event_name");
+        if (table.stampsUpdatedAt && eventName != null) {
+            realtime.publish(unquote(eventName), type, toJson(row, null), row.get("updated_at"));
+        }
+    }
+    
+    private void stamp(Table table, Map<String, String> row) {
+        if (table.stampsUpdatedAt) {
+            row.put("updated_at", quote(nextStamp()));
+        }
+    }
+    
+    /**
+     * now() with microseconds like Postgres, but never the same value twice,
+     * or up to stampSkewMs earlier and in no particular order
+     */
+    private synchronized String nextStamp() {
+        Instant now = Instant.now();
+        long micros = now.getEpochSecond() * 1_000_000 + now.getNano() / 1000;
+        int skewMs = stampSkewMs;
+        if (skewMs > 0) {
+            micros -= ThreadLocalRandom.current().nextLong(skewMs * 1000L);
+        } else {
+            micros = Math.max(lastStampMicros + 1, micros);
+        }
+        lastStampMicros = Math.max(lastStampMicros, micros);
+        Instant stamp = Instant.ofEpochSecond(micros / 1_000_000, (micros % 1_000_000) * 1000);
+        return TIMESTAMP.format(OffsetDateTime.ofInstant(stamp, ZoneOffset.UTC));
+    }
+    
+    private static String now() {
+        return TIMESTAMP.format(OffsetDateTime.now(ZoneOffset.UTC));
+    }
+    
+    private static Map<String, String> readObject(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        JsonParser.MessageView view = new JsonParser.MessageView();
+        if (!view.wrap(body, 0, body.length)) {
+            return null;
+        }
+        Map<String, String> row = new LinkedHashMap<>();
+        for (int k = 0; k < view.size(); k++) {
+            row.put(view.keyAt(k), view.rawValueAt(k));
+        }
+        return row;
+    }
+    
+    private static String toJson(Map<String, String> row, String select) {
+        StringBuilder json = new StringBuilder("{");
+        if (select == null || select.equals("*")) {
+            row.forEach((column, value) -> json.append('"').append(column).append("\":").append(value).append(','));
+        } else {
+            for (String column : select.split(",")) {
+                String value = row.get(column.trim());
+                json.append('"').append(column.trim()).append("\":").append(value != null ? value : "null").append(',');
+            }
+        }
+        if (json.length() > 1) {
+            json.setLength(json.length() - 1);
+        }
+        return json.append('}').toString();
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    /**
+     * Order of two filter operands: as numbers, then as timestamps, then as text
+     */
+    private static int compare(String a, String b) {
+        try {
+            return Long.compare(Long.parseLong(a), Long.parseLong(b));
+        } catch (NumberFormatException ignored) {}
+        try {
+            return OffsetDateTime.parse(a).toInstant().compareTo(OffsetDateTime.parse(b).toInstant());
+        } catch (DateTimeParseException ignored) {}
+        return a.compareTo(b);
+    }
+    
+    private static String unquote(String raw) {
+        return raw.length() >= 2 && raw.charAt(0) == '"' ? raw.substring(1, raw.length() - 1) : raw;
+    }
+    
+    private static String quote(String text) {
+        return "\"" + text + "\"";
+    }
+}
@@ -0,0 +1,360 @@
+package org.ftc.scorer.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Supabase Realtime side of LocalCloudServer. It takes the websocket upgrades
+ * LocalCloudServer hands over for /realtime/v1/websocket and speaks as much of the
+ * Phoenix channel protocol as RealtimeSubscriber uses:
+ *   phx_join with a postgres_changes filter "event_name=eq.X"   phx_reply ok
+ *   heartbeat on topic "phoenix"                                phx_reply ok
+ *   phx_leave                                                   phx_reply ok, unsubscribed
+ * Every events insert or update the server applies is pushed, in the order applied,
+ * to each channel whose filter matches (no filter matches every row):
+ *   {"topic":T,"event":"postgres_changes","payload":{"data":{...,"type":"UPDATE","record":{row}}},"ref":null}
+ *
+ * To exercise the fallback paths, failChannels() sends phx_error on every joined
+ * channel and dropConnections() closes every socket without a close frame.
+ *
+ * Client frames must be masked (RFC 6455); no extensions or subprotocols are negotiated.
+ */
+final class LocalRealtimeEndpoint {
+    static final String PATH = "/realtime/v1/websocket";
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int MAX_MESSAGE = 1 << 20;
+    private static final Pattern FILTER = Pattern.compile("\"filter\"\\s*:\\s*\"event_name=eq\\.([^\"]*)\"");
+    
+    private static final int OP_CONTINUATION = 0x0;
+    private static final int OP_TEXT = 0x1;
+    private static final int OP_CLOSE = 0x8;
+    private static final int OP_PING = 0x9;
+    private static final int OP_PONG = 0xA;
+    
+    /**
+     * A text frame waiting for its delivery time
+     */
+    private static final class Outgoing {
+        final long dueNanos;
+        final byte[] payload;
+        
+        Outgoing(long dueNanos, byte[] payload) {
+            this.dueNanos = dueNanos;
+            this.payload = payload;
+        }
+    }
+    
+    private static final Outgoing CLOSED = new Outgoing(0, null);
+    
+    /**
+     * One upgraded socket and the channels joined on it. The accepting thread reads,
+     * a writer thread sends the queued frames.
+     */
+    private final class Connection {
+        final Socket socket;
+        final InputStream in;
+        final OutputStream out;
+        final Map<String, String> channels = new ConcurrentHashMap<>(); // Topic -> event name, "" for any
+        final BlockingQueue<Outgoing> outbox = new LinkedBlockingQueue<>();
+        final JsonParser.MessageView view = new JsonParser.MessageView();   // Reader thread only
+        volatile boolean open = true;
+        
+        Connection(Socket socket, InputStream in) throws IOException {
+            this.socket = socket;
+            this.in = in;
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+        
+        void readLoop() throws IOException {
+            DataInputStream data = new DataInputStream(in);
+            ByteArrayOutputStream message = new ByteArrayOutputStream();
+            while (open) {
+                int b0 = data.read();
+                if (b0 < 0) {
+                    return;
+                }
+                int b1 = data.readUnsignedByte();
+                boolean fin = (b0 & 0x80) != 0;
+                int opcode = b0 & 0x0F;
+                long length = b1 & 0x7F;
+                if (length == 126) {
+                    length = data.readUnsignedShort();
+                } else if (length == 127) {
+                    length = data.readLong();
+                }
+                if ((b1 & 0x80) == 0 || length < 0 || message.size() + length > MAX_MESSAGE) {
+                    return; // Unmasked or oversized: protocol error, drop the socket
+                }
+                byte[] mask = new byte[4];
+                data.readFully(mask);
+                byte[] payload = new byte[(int) length];
+                data.readFully(payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i & 3];
+                }
+                
+                switch (opcode) {
+                    case OP_TEXT:
+                    case OP_CONTINUATION:
+                        message.write(payload);
+                        if (fin) {
+                            handleMessage(message.toByteArray());
+                            message.reset();
+                        }
+                        break;
+                    case OP_PING:
+                        writeFrame(OP_PONG, payload);
+                        break;
+                    case OP_CLOSE:
+                        writeFrame(OP_CLOSE, Arrays.copyOf(payload, Math.min(2, payload.length)));
+                        return;
+                    default:
+                        break; // Pong, binary
+                }
+            }
+        }
+        
+        void writeLoop() {
+            try {
+                while (open) {
+                    Outgoing next = outbox.take();
+                    if (next == CLOSED) {
+                        return;
+                    }
+                    long wait = next.dueNanos - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    writeFrame(OP_TEXT, next.payload);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // The reader sees the socket go
+            } finally {
+                close();
+            }
+        }
+        
+        private void handleMessage(byte[] bytes) {
+            if (!view.wrap(bytes, 0, bytes.length)) {
+                return;
+            }
+            String topic = view.getString("topic");
+            String ref = rawValue(view, "ref");
+            String joinRef = rawValue(view, "join_ref");
+            if (topic == null) {
+                return;
+            }
+            if (view.stringEquals("event", "phx_join")) {
+                Matcher filter = FILTER.matcher(new String(bytes, StandardCharsets.UTF_8));
+                String eventName = filter.find() ? filter.group(1) : "";
+                channels.put(topic, eventName);
+                joins.incrementAndGet();
+                reply(topic, ref, joinRef, "{\"postgres_changes\":[{\"id\":1,\"event\":\"*\",\"schema\":\"public\"," +
+                      "\"table\":\"events\"" + (eventName.isEmpty() ? "" : ",\"filter\":\"event_name=eq." + eventName + "\"") + "}]}");
+            } else if (view.stringEquals("event", "phx_leave")) {
+                channels.remove(topic);
+                reply(topic, ref, joinRef, "{}");
+            } else if (view.stringEquals("event", "heartbeat")) {
+                reply(topic, ref, null, "{}");
+            }
+        }
+        
+        private void reply(String topic, String ref, String joinRef, String response) {
+            send("{\"topic\":\"" + topic + "\",\"event\":\"phx_reply\",\"payload\":{\"status\":\"ok\",\"response\":" +
+                 response + "},\"ref\":" + (ref != null ? ref : "null") +
+                 (joinRef != null ? ",\"join_ref\":" + joinRef : "") + "}");
+        }
+        
+        void send(String message) {
+            if (open) {
+                outbox.add(new Outgoing(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(latencyMs),
+                                        message.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        
+        private void writeFrame(int opcode, byte[] payload) throws IOException {
+            synchronized (out) {
+                out.write(0x80 | opcode);
+                if (payload.length < 126) {
+                    out.write(payload.length);
+                } else if (payload.length < 65536) {
+                    out.write(126);
+                    out.write(payload.length >>> 8);
+                    out.write(payload.length & 0xFF);
+                } else {
+                    out.write(127);
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        out.write((int) ((long) payload.length >>> shift) & 0xFF);
+                    }
+                }
+                out.write(payload);
+                out.flush();
+            }
+        }
+        
+        void close() {
+            if (!open) return;
+            open = false;
+            connections.remove(this);
+            outbox.add(CLOSED);
+            try {
+                socket.close();
+            } catch (IOException ignored) {}
+        }
+    }
+    
+    private final ExecutorService executor;
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong joins = new AtomicLong();
+    private final AtomicLong changesSent = new AtomicLong();
+    private volatile int latencyMs = 0;
+    
+    /**
+     * @param executor runs one writer thread per connection
+     */
+    LocalRealtimeEndpoint(ExecutorService executor) {
+        this.executor = executor;
+    }
+    
+    /**
+     * Delay every frame sent by this much, like the REST responses
+     */
+    void setLatencyMs(int latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+    
+    /**
+     * True if the request head asks for a websocket on the Realtime path
+     */
+    static boolean isUpgrade(String head) {
+        String lower = head.toLowerCase(Locale.ROOT);
+        return (lower.startsWith("get " + PATH + "?") || lower.startsWith("get " + PATH + " "))
+            && lower.contains("\nupgrade: websocket");
+    }
+    
+    /**
+     * Complete the handshake and serve the socket until it closes (blocks)
+     * @param in the socket's input, positioned just after the request head
+     */
+    void serve(Socket socket, InputStream in, String head) throws IOException {
+        String key = LocalCloudServer.header(head, "sec-websocket-key");
+        OutputStream raw = socket.getOutputStream();
+        if (key == null) {
+            raw.write("HTTP/1.1 400 Bad Request\r\nContent-Length: 0\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            raw.flush();
+            socket.close();
+            return;
+        }
+        raw.write(("HTTP/1.1 101 Switching Protocols\r\n" +
+                   "Upgrade: websocket\r\n" +
+                   "Connection: Upgrade\r\n" +
+                   "Sec-WebSocket-Accept: " + acceptKey(key) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        raw.flush();
+        
+        Connection connection = new Connection(socket, in);
+        connections.add(connection);
+        executor.execute(connection::writeLoop);
+        try {
+            connection.readLoop();
+        } catch (IOException e) {
+            // Dropped by either side
+        } finally {
+            connection.close();
+        }
+    }
+    
+    /**
+     * Push one applied events row to every channel filtered to its event (caller
+     * holds the table lock, so rows go out in the order they were applied)
+     */
+    void publish(String eventName, String type, String record, String commitTimestamp) {
+        for (Connection connection : connections) {
+            for (Map.Entry<String, String> channel : connection.channels.entrySet()) {
+                if (channel.getValue().isEmpty() || channel.getValue().equals(eventName)) {
+                    connection.send("{\"topic\":\"" + channel.getKey() + "\",\"event\":\"postgres_changes\"," +
+                                    "\"payload\":{\"data\":{\"schema\":\"public\",\"table\":\"events\"," +
+                                    "\"commit_timestamp\":" + commitTimestamp + ",\"type\":\"" + type + "\"," +
+                                    "\"record\":" + record + "}},\"ref\":null}");
+                    changesSent.incrementAndGet();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Crash every joined channel: phx_error to its subscriber, which then has to rejoin
+     */
+    void failChannels() {
+        for (Connection connection : connections) {
+            for (String topic : connection.channels.keySet()) {
+                connection.channels.remove(topic);
+                connection.send("{\"topic\":\"" + topic + "\",\"event\":\"phx_error\",\"payload\":{},\"ref\":null}");
+            }
+        }
+    }
+    
+    /**
+     * Close every socket without a close frame, like a dropped network
+     */
+    void dropConnections() {
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+    
+    int getConnectionCount() {
+        return connections.size();
+    }
+    
+    long getJoins() {
+        return joins.get();
+    }
+    
+    long getChangesSent() {
+        return changesSent.get();
+    }
+    
+    private static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // Every JDK has SHA-1
+        }
+    }
+    
+    /**
+     * A top-level value as JSON text, or null if the key is missing
+     */
+    private static String rawValue(JsonParser.MessageView view, String key) {
+        for (int k = 0; k < view.size(); k++) {
+            if (view.keyAt(k).equals(key)) {
+                return view.rawValueAt(k);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,96 @@
+package org.ftc.scorer.service;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends SyncServer's binary score frames to a multicast group, one datagram per
+ * frame no matter how many displays are listening (see MulticastSubscriber).
+ *
+ * A keyframe (full snapshot) goes out periodically so subscribers that lost the
+ * last delta while the score sat still notice without waiting for the next change.
+ */
+final class MulticastPublisher {
+    private final DatagramChannel channel;
+    private final InetSocketAddress target;
+    private final ScheduledExecutorService keyframes;
+    private long sentFrames = 0;
+    
+    /**
+     * @param networkInterface interface to send on, or null for the system default
+     *                         (use the loopback interface to test without a network)
+     */
+    MulticastPublisher(String group, int port, NetworkInterface networkInterface,
+                       Supplier<ByteBuffer> keyframeSource, long keyframeIntervalMs) throws IOException {
+        InetAddress groupAddress = InetAddress.getByName(group);
+        if (!groupAddress.isMulticastAddress()) {
+            throw new IOException(group + " is not a multicast address");
+        }
+        this.target = new InetSocketAddress(groupAddress, port);
+        this.channel = DatagramChannel.open(StandardProtocolFamily.INET);
+        try {
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1); // Stay on the venue LAN
+            channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true); // Displays on this machine
+            if (networkInterface != null) {
+                channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, networkInterface);
+            }
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        
+        this.keyframes = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "MulticastKeyframe");
+            t.setDaemon(true);
+            return t;
+        });
+        keyframes.scheduleAtFixedRate(() -> {
+            ByteBuffer keyframe = keyframeSource.get();
+            if (keyframe != null) {
+                publish(keyframe);
+            }
+        }, keyframeIntervalMs, keyframeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Send one frame. Datagrams are fire-and-forget: if the socket buffer is full
+     * the frame is dropped and subscribers recover through the sequence gap.
+     */
+    synchronized void publish(ByteBuffer frame) {
+        try {
+            if (channel.send(frame.duplicate(), target) > 0) {
+                sentFrames++;
+            }
+        } catch (IOException e) {
+            System.err.println("Multicast send failed: " + e.getMessage());
+        }
+    }
+    
+    synchronized long getSentFrames() {
+        return sentFrames;
+    }
+    
+    String getGroupAddress() {
+        return target.getAddress().getHostAddress() + ":" + target.getPort();
+    }
+    
+    void close() {
+        keyframes.shutdownNow();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+}
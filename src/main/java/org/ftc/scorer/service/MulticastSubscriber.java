@@ -0,0 +1,235 @@
+package org.ftc.scorer.service;
+
+import org.ftc.scorer.model.Match;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.MembershipKey;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only score feed for pit and audience displays.
+ * Listens to the multicast group a SyncServer publishes on, so any number of
+ * displays cost the host a single datagram per change.
+ *
+ * Usage:
+ * 1. Enable multicast on the server (SyncServer.startMulticast)
+ * 2. Create a subscriber with the server's address for TCP fallback
+ * 3. Call start(group, port, networkInterface)
+ *
+ * Frames carry the server's sequence numbers. When the subscriber starts, or sees
+ * a gap it cannot bridge, it fetches a snapshot over TCP from the SyncServer and
+ * continues from there. A periodic keyframe also repairs gaps on its own.
+ */
+public class MulticastSubscriber {
+    private static final int SNAPSHOT_TIMEOUT_MS = 2000;
+    
+    private final Match match;
+    private final String serverHost;
+    private final int serverPort;
+    private DatagramChannel channel;
+    private MembershipKey membership;
+    private Thread thread;
+    private volatile boolean running = false;
+    private Runnable onScoreUpdate;
+    private volatile NotificationExecutor notifier = NotificationExecutor.direct();
+    
+    // Only touched by the receive thread
+    private long lastSequence = -1;
+    private volatile long gapCount = 0;
+    private volatile long snapshotCount = 0;
+    
+    /**
+     * @param serverHost SyncServer host used for snapshots
+     * @param serverPort SyncServer TCP port
+     */
+    public MulticastSubscriber(Match match, String serverHost, int serverPort) {
+        this.match = match;
+        this.serverHost = serverHost;
+        this.serverPort = serverPort;
+    }
+    
+    /**
+     * Join the multicast group and start applying score frames
+     * @param networkInterface interface to join on, or null for the first multicast-capable one
+     *                         (use the loopback interface to test without a network)
+     * @return true if the group was joined
+     */
+    public boolean start(String group, int port, NetworkInterface networkInterface) {
+        try {
+            InetAddress groupAddress = InetAddress.getByName(group);
+            NetworkInterface ni = networkInterface != null ? networkInterface : findMulticastInterface();
+            if (ni == null) {
+                System.err.println("No multicast-capable network interface found");
+                return false;
+            }
+            
+            channel = DatagramChannel.open(StandardProtocolFamily.INET);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true); // Several displays per machine
+            channel.bind(new InetSocketAddress(port));
+            membership = channel.join(groupAddress, ni);
+            
+            running = true;
+            thread = new Thread(this::receiveLoop, "MulticastSubscriber");
+            thread.setDaemon(true);
+            thread.start();
+            
+            System.out.println("Listening for scores on " + group + ":" + port + " (" + ni.getName() + ")");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to join multicast group " + group + ":" + port + ": " + e.getMessage());
+            stop();
+            return false;
+        }
+    }
+    
+    /**
+     * Leave the group and stop the receive thread
+     */
+    public void stop() {
+        running = false;
+        try {
+            if (membership != null) membership.drop();
+            if (channel != null) channel.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+    
+    /**
+     * Set callback for when scores are updated
+     */
+    public void setOnScoreUpdate(Runnable callback) {
+        this.onScoreUpdate = callback;
+    }
+    
+    /**
+     * Where onScoreUpdate runs (default: the calling thread).
+     * UI code passes FxNotifications.coalescing() to get them on the FX thread.
+     */
+    public void setNotificationExecutor(NotificationExecutor notifier) {
+        this.notifier = notifier;
+    }
+    
+    /**
+     * Number of sequence gaps detected
+     */
+    public long getGapCount() {
+        return gapCount;
+    }
+    
+    /**
+     * Number of TCP snapshots fetched
+     */
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void receiveLoop() {
+        ByteBuffer datagram = ByteBuffer.allocate(BinaryScoreCodec.MAX_PAYLOAD + 2);
+        byte[] payload = new byte[BinaryScoreCodec.MAX_PAYLOAD];
+        
+        // Start from a known state rather than waiting for the next keyframe
+        fetchSnapshot();
+        
+        while (running) {
+            try {
+                datagram.clear();
+                channel.receive(datagram);
+                datagram.flip();
+                
+                if (datagram.remaining() < 2 || datagram.get() != BinaryScoreCodec.MARKER) continue;
+                int length = datagram.get() & 0xFF;
+                if (datagram.remaining() < length) continue;
+                datagram.get(payload, 0, length);
+                
+                applyFrame(BinaryScoreCodec.decode(payload, 0, length));
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Multicast receive failed: " + e.getMessage());
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring bad multicast frame: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void applyFrame(BinaryScoreCodec.Frame frame) {
+        if (frame.seq <= lastSequence) {
+            return; // Duplicate or keyframe we already have
+        }
+        if (frame.kind == BinaryScoreCodec.KIND_DELTA && (lastSequence < 0 || frame.seq != lastSequence + 1)) {
+            gapCount++;
+            System.err.println("Multicast gap (have " + lastSequence + ", got " + frame.seq + "), fetching snapshot");
+            fetchSnapshot();
+            if (frame.seq != lastSequence + 1) {
+                return; // Snapshot already covers this delta, or the server is ahead again
+            }
+        }
+        
+        SyncClient.applyFrame(match, frame);
+        lastSequence = frame.seq;
+        notifyUpdate();
+    }
+    
+    /**
+     * Ask a SyncServer for a snapshot over a short-lived connection, then hang up.
+     * Multicast frames that arrive meanwhile wait in the socket buffer.
+     */
+    private void fetchSnapshot() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(serverHost, serverPort), SNAPSHOT_TIMEOUT_MS);
+            socket.setSoTimeout(SNAPSHOT_TIMEOUT_MS);
+            // Saying RESYNC first skips the server's wait for a RESUME
+            OutputStream out = socket.getOutputStream();
+            out.write("{\"type\":\"RESYNC\"}\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line = in.readLine();
+            while (line != null && line.contains("\"type\":\"SESSION\"")) {
+                line = in.readLine();
+            }
+            if (line == null || !line.contains("\"type\":\"SCORE_UPDATE\"")) {
+                System.err.println("Sync server did not send a snapshot");
+                return;
+            }
+            
+            byte[] snapshot = line.getBytes(StandardCharsets.UTF_8);
+            long seq = SyncClient.applySnapshotMessage(match, snapshot, 0, snapshot.length, new JsonParser.ScoreMessage());
+            snapshotCount++;
+            if (seq > lastSequence) {
+                lastSequence = seq;
+            }
+            notifyUpdate();
+        } catch (IOException e) {
+            System.err.println("Snapshot from " + serverHost + ":" + serverPort + " failed: " + e.getMessage());
+        }
+    }
+    
+    private void notifyUpdate() {
+        if (onScoreUpdate != null) {
+            notifier.execute(onScoreUpdate);
+        }
+    }
+    
+    private static NetworkInterface findMulticastInterface() throws SocketException {
+        java.util.Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+        while (interfaces.hasMoreElements()) {
+            NetworkInterface ni = interfaces.nextElement();
+            if (ni.isUp() && ni.supportsMulticast() && !ni.isLoopback()) {
+                return ni;
+            }
+        }
+        return null;
+    }
+}
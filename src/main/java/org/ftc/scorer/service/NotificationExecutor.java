@@ -0,0 +1,100 @@
+package org.ftc.scorer.service;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the callbacks sync services fire when scores or connections change.
+ *
+ * Services used to hand every inbound message to Platform.runLater, which floods
+ * the FX queue during bursts and needs a running toolkit. Services now take one of
+ * these instead:
+ * - direct() (the default): callbacks run on the calling thread - for headless
+ *   servers and tests
+ * - a coalescing executor: a callback already waiting on the target is not queued
+ *   again, so a burst of updates costs one refresh. The UI passes
+ *   ui.FxNotifications.coalescing(), which targets the FX thread.
+ *
+ * This class does not touch JavaFX, so services built with it load without it.
+ *
+ * Coalescing is keyed on the callback itself, so each distinct callback can have at
+ * most one pending run. The pending mark is cleared just before the callback runs,
+ * so a change that arrives while it runs schedules one more pass.
+ */
+public class NotificationExecutor implements Executor {
+    private final Executor target;
+    private final boolean coalescing;
+    private final Set<Runnable> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    
+    /**
+     * @param target where callbacks actually run
+     * @param coalescing skip a callback that is already waiting to run
+     */
+    public NotificationExecutor(Executor target, boolean coalescing) {
+        this.target = target;
+        this.coalescing = coalescing;
+    }
+    
+    /**
+     * Run callbacks on the caller's thread - no toolkit needed
+     */
+    public static NotificationExecutor direct() {
+        return new NotificationExecutor(Runnable::run, false);
+    }
+    
+    @Override
+    public void execute(Runnable callback) {
+        if (callback == null) {
+            return;
+        }
+        requested.incrementAndGet();
+        
+        if (!coalescing) {
+            target.execute(() -> invoke(callback));
+            return;
+        }
+        if (!pending.add(callback)) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        try {
+            target.execute(() -> {
+                pending.remove(callback);
+                invoke(callback);
+            });
+        } catch (RuntimeException e) {
+            pending.remove(callback);
+            throw e;
+        }
+    }
+    
+    private static void invoke(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            System.err.println("Notification callback failed: " + e.getMessage());
+        }
+    }
+    
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+    
+    /**
+     * Number of callbacks handed to this executor
+     */
+    public long getRequestedCount() {
+        return requested.get();
+    }
+    
+    /**
+     * Number of callbacks dropped because the same one was still waiting to run
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+}
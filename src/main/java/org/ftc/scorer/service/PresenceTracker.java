@@ -0,0 +1,93 @@
+package org.ftc.scorer.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Host-side count of the devices connected to a cloud event, per role
+ * (e.g. "RED_SCORER" -> 1).
+ *
+ * The host refreshes each role from a server-side count on its own cadence. A role
+ * that is not confirmed again within the TTL drops out by itself, so if the backend
+ * stops answering the host shows scorers as gone instead of frozen at the last count.
+ *
+ * Thread-safe.
+ */
+public class PresenceTracker {
+    private final long ttlNanos;
+    private final Map<String, Entry> roles = new ConcurrentHashMap<>();
+    
+    private static final class Entry {
+        final int count;
+        final long expiresNanos;
+        
+        Entry(int count, long expiresNanos) {
+            this.count = count;
+            this.expiresNanos = expiresNanos;
+        }
+    }
+    
+    /**
+     * @param ttlMillis how long a confirmed count stays valid
+     */
+    public PresenceTracker(long ttlMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+    
+    /**
+     * A fresh count for a role; 0 removes it
+     */
+    public void update(String role, int count) {
+        if (count <= 0) {
+            roles.remove(role);
+        } else {
+            roles.put(role, new Entry(count, System.nanoTime() + ttlNanos));
+        }
+    }
+    
+    /**
+     * Devices with this role, or 0 if it was never confirmed or has expired
+     */
+    public int count(String role) {
+        Entry entry = roles.get(role);
+        if (entry == null) {
+            return 0;
+        }
+        if (System.nanoTime() - entry.expiresNanos >= 0) {
+            roles.remove(role, entry);
+            return 0;
+        }
+        return entry.count;
+    }
+    
+    /**
+     * Devices over all roles that have not expired
+     */
+    public int total() {
+        int total = 0;
+        for (String role : roles.keySet()) {
+            total += count(role);
+        }
+        return total;
+    }
+    
+    /**
+     * Roles currently present, with their counts, sorted by role
+     */
+    public Map<String, Integer> snapshot() {
+        Map<String, Integer> present = new TreeMap<>();
+        for (String role : roles.keySet()) {
+            int count = count(role);
+            if (count > 0) {
+                present.put(role, count);
+            }
+        }
+        return present;
+    }
+    
+    public void clear() {
+        roles.clear();
+    }
+}
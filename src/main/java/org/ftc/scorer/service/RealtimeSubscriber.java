@@ -0,0 +1,271 @@
+package org.ftc.scorer.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Push feed of changes to one cloud event row over Supabase Realtime.
+ *
+ * Realtime speaks the Phoenix channel protocol over a websocket: every frame is a
+ * JSON object {"topic","event","payload","ref"}. The subscriber joins one channel
+ * asking for postgres_changes on public.events filtered to the event name:
+ *   {"topic":"realtime:events:SCRIMMAGE","event":"phx_join","ref":"1","join_ref":"1",
+ *    "payload":{"config":{"postgres_changes":[{"event":"*","schema":"public",
+ *               "table":"events","filter":"event_name=eq.SCRIMMAGE"}]},"access_token":"..."}}
+ * and then receives each committed row as
+ *   {"event":"postgres_changes","payload":{"data":{"type":"UPDATE","record":{...row...}}}}
+ * A Phoenix heartbeat goes out every HEARTBEAT_MS so proxies keep the socket open.
+ *
+ * The subscriber only reports rows and state; the owner decides what to do with them
+ * and keeps polling while isLive() is false. Dropped sockets are reopened with
+ * jittered exponential backoff until stop() is called.
+ */
+public class RealtimeSubscriber implements WebSocket.Listener {
+    private static final long HEARTBEAT_MS = 25000;
+    private static final long RECONNECT_INITIAL_MS = 500;
+    private static final long RECONNECT_MAX_MS = 30000;
+    private static final String JOIN_REF = "1";
+    
+    /**
+     * Receives the row of every change, as UTF-8 JSON bytes owned by the callee
+     */
+    public interface RowListener {
+        void onRow(byte[] data, int offset, int length);
+    }
+    
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final URI endpoint;
+    private final String apiKey;
+    private final String eventName;
+    private final String topic;
+    private final RowListener onRow;
+    private final Runnable onStateChange;
+    
+    private volatile WebSocket socket;
+    private volatile boolean running = false;
+    private volatile boolean live = false;        // Joined and receiving changes
+    private volatile long changeCount = 0;
+    private ScheduledFuture<?> heartbeat;
+    private int attempt = 0;
+    private boolean reconnectScheduled = false;
+    private long nextRef = 2;
+    
+    // Frames can arrive in pieces; reassembled on the websocket's listener thread
+    private final StringBuilder frame = new StringBuilder();
+    private final JsonParser.MessageView view = new JsonParser.MessageView();
+    
+    /**
+     * @param supabaseUrl project URL, e.g. https://xyz.supabase.co (http:// for a local stand-in)
+     * @param onRow called on the websocket thread for each changed row
+     * @param onStateChange called when the feed goes live or drops
+     */
+    public RealtimeSubscriber(HttpClient httpClient, ScheduledExecutorService scheduler, String supabaseUrl,
+                              String apiKey, String eventName, RowListener onRow, Runnable onStateChange) {
+        this.httpClient = httpClient;
+        this.scheduler = scheduler;
+        this.apiKey = apiKey;
+        this.eventName = eventName;
+        this.topic = "realtime:events:" + eventName;
+        this.onRow = onRow;
+        this.onStateChange = onStateChange;
+        String base = supabaseUrl.replaceFirst("^http", "ws");
+        this.endpoint = URI.create(base + "/realtime/v1/websocket?apikey=" + apiKey + "&vsn=1.0.0");
+    }
+    
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        attempt = 0;
+        open();
+    }
+    
+    public synchronized void stop() {
+        running = false;
+        cancelHeartbeat();
+        WebSocket ws = socket;
+        socket = null;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "").exceptionally(e -> null);
+        }
+        setLive(false);
+    }
+    
+    /**
+     * True while the channel is joined and changes arrive as they happen
+     */
+    public boolean isLive() {
+        return live;
+    }
+    
+    /**
+     * Number of row changes received since start()
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+    
+    private void open() {
+        httpClient.newWebSocketBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .buildAsync(endpoint, this)
+            .whenComplete((ws, error) -> {
+                if (error != null) {
+                    System.err.println("Realtime connect failed: " + error.getMessage());
+                    scheduleReconnect();
+                }
+            });
+    }
+    
+    private synchronized void scheduleReconnect() {
+        cancelHeartbeat();
+        socket = null;
+        setLive(false);
+        if (!running || reconnectScheduled) return;
+        reconnectScheduled = true;
+        long ceiling = Math.min(RECONNECT_MAX_MS, RECONNECT_INITIAL_MS << Math.min(attempt++, 16));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        scheduler.schedule(() -> {
+            synchronized (this) {
+                reconnectScheduled = false;
+                if (running && socket == null) open();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public synchronized void onOpen(WebSocket webSocket) {
+        if (!running) {
+            webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "");
+            return;
+        }
+        socket = webSocket;
+        send("{\"topic\":\"" + topic + "\",\"event\":\"phx_join\",\"ref\":\"" + JOIN_REF + "\",\"join_ref\":\"" + JOIN_REF +
+             "\",\"payload\":{\"config\":{\"postgres_changes\":[{\"event\":\"*\",\"schema\":\"public\"," +
+             "\"table\":\"events\",\"filter\":\"event_name=eq." + eventName + "\"}]},\"access_token\":\"" + apiKey + "\"}}");
+        heartbeat = scheduler.scheduleAtFixedRate(this::sendHeartbeat, HEARTBEAT_MS, HEARTBEAT_MS, TimeUnit.MILLISECONDS);
+        webSocket.request(1);
+    }
+    
+    @Override
+    public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+        frame.append(data);
+        if (last) {
+            byte[] bytes = frame.toString().getBytes(StandardCharsets.UTF_8);
+            frame.setLength(0);
+            handleFrame(bytes);
+        }
+        webSocket.request(1);
+        return null;
+    }
+    
+    @Override
+    public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+        if (running && isCurrent(webSocket)) {
+            System.err.println("Realtime socket closed (" + statusCode + "), falling back to polling");
+            scheduleReconnect();
+        }
+        return null;
+    }
+    
+    @Override
+    public void onError(WebSocket webSocket, Throwable error) {
+        if (running && isCurrent(webSocket)) {
+            System.err.println("Realtime socket error: " + error.getMessage() + ", falling back to polling");
+            scheduleReconnect();
+        }
+    }
+    
+    /**
+     * False for callbacks from a socket that has already been replaced
+     */
+    private boolean isCurrent(WebSocket webSocket) {
+        WebSocket current = socket;
+        return current == null || current == webSocket;
+    }
+    
+    private void handleFrame(byte[] bytes) {
+        if (!view.wrap(bytes, 0, bytes.length)) {
+            return;
+        }
+        if (view.stringEquals("event", "phx_reply")) {
+            if (view.stringEquals("ref", JOIN_REF)) {
+                boolean ok = view.enter("payload") && view.stringEquals("status", "ok");
+                if (ok) {
+                    synchronized (this) {
+                        attempt = 0;
+                    }
+                    System.out.println("Realtime subscribed to " + eventName);
+                    setLive(true);
+                } else {
+                    System.err.println("Realtime join refused: " + new String(bytes, StandardCharsets.UTF_8));
+                    closeAndRetry();
+                }
+            }
+        } else if (view.stringEquals("event", "postgres_changes")) {
+            if (view.enter("payload") && view.enter("data") && view.enter("record")) {
+                changeCount++;
+                onRow.onRow(bytes, view.start(), view.length());
+            }
+        } else if (view.stringEquals("event", "phx_error") || view.stringEquals("event", "phx_close")) {
+            if (view.stringEquals("topic", topic)) {
+                System.err.println("Realtime channel closed by server");
+                closeAndRetry();
+            }
+        }
+    }
+    
+    private void closeAndRetry() {
+        WebSocket ws = socket;
+        if (ws != null) {
+            ws.abort();
+        }
+        scheduleReconnect();
+    }
+    
+    private void sendHeartbeat() {
+        long ref;
+        synchronized (this) {
+            ref = nextRef++;
+        }
+        send("{\"topic\":\"phoenix\",\"event\":\"heartbeat\",\"payload\":{},\"ref\":\"" + ref + "\"}");
+    }
+    
+    private void send(String message) {
+        WebSocket ws = socket;
+        if (ws != null) {
+            // One frame at a time: the JDK websocket rejects overlapping sends
+            synchronized (ws) {
+                try {
+                    ws.sendText(message, true).join();
+                } catch (RuntimeException e) {
+                    // onError/onClose reports the broken socket
+                }
+            }
+        }
+    }
+    
+    private void cancelHeartbeat() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+            heartbeat = null;
+        }
+    }
+    
+    private void setLive(boolean value) {
+        if (live != value) {
+            live = value;
+            if (onStateChange != null) {
+                onStateChange.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package org.ftc.scorer.service;
+
+import org.ftc.scorer.model.DecodeScore;
+import org.ftc.scorer.model.ScoreField;
+import org.ftc.scorer.model.ScoreSnapshot;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The one place DecodeScore fields are turned into JSON keys and values, for
+ * both the LAN sync protocol and the cloud events table.
+ *
+ * Every naming style is a table indexed by ScoreField ordinal, built once:
+ * the encoded key bytes ("teleopDepot": or "red_teleop_depot":) for writing,
+ * and the bare names grouped by length for looking keys up while parsing.
+ * Writing copies those bytes into a JsonWriter, so a score message costs no
+ * String building and no UTF-8 encoding per field.
+ */
+final class ScoreCodec {
+    /**
+     * Key style of a score field
+     */
+    enum Naming {
+        PROTOCOL,      // LAN sync messages: "teleopDepot"
+        RED_COLUMNS,   // Cloud events row: "red_teleop_depot"
+        BLUE_COLUMNS;  // Cloud events row: "blue_teleop_depot"
+        
+        private final byte[][] keys = new byte[ScoreField.COUNT][];   // "name": per field
+        private final byte[][] names = new byte[ScoreField.COUNT][];
+        private int[][] byLength;                                     // Name length -> field ordinals
+        
+        private String nameOf(ScoreField field) {
+            switch (this) {
+                case RED_COLUMNS: return "red_" + field.getColumnName();
+                case BLUE_COLUMNS: return "blue_" + field.getColumnName();
+                default: return field.getJsonName();
+            }
+        }
+    }
+    
+    private static final byte[][] BASE_NAMES;
+    private static final byte[][] BASE_VALUES;    // Quoted, ready to write
+    private static final byte[] TRUE = ascii("true");
+    private static final byte[] FALSE = ascii("false");
+    
+    private static final ThreadLocal<JsonWriter> WRITER = ThreadLocal.withInitial(() -> new JsonWriter(512));
+    
+    static {
+        for (Naming naming : Naming.values()) {
+            int longest = 0;
+            for (ScoreField field : ScoreField.ALL) {
+                String name = naming.nameOf(field);
+                naming.names[field.ordinal()] = ascii(name);
+                naming.keys[field.ordinal()] = ascii("\"" + name + "\":");
+                longest = Math.max(longest, name.length());
+            }
+            naming.byLength = new int[longest + 1][0];
+            for (ScoreField field : ScoreField.ALL) {
+                int length = naming.names[field.ordinal()].length;
+                int[] candidates = Arrays.copyOf(naming.byLength[length], naming.byLength[length].length + 1);
+                candidates[candidates.length - 1] = field.ordinal();
+                naming.byLength[length] = candidates;
+            }
+        }
+        
+        DecodeScore.BaseStatus[] statuses = DecodeScore.BaseStatus.values();
+        BASE_NAMES = new byte[statuses.length][];
+        BASE_VALUES = new byte[statuses.length][];
+        for (DecodeScore.BaseStatus status : statuses) {
+            BASE_NAMES[status.ordinal()] = ascii(status.name());
+            BASE_VALUES[status.ordinal()] = ascii("\"" + status.name() + "\"");
+        }
+    }
+    
+    private ScoreCodec() {
+        // Utility class - no instantiation
+    }
+    
+    /**
+     * This thread's writer, emptied. The content is only valid until the thread's
+     * next call, so turn it into a frame or byte[] before building another message.
+     */
+    static JsonWriter writer() {
+        JsonWriter writer = WRITER.get();
+        writer.reset();
+        return writer;
+    }
+    
+    /**
+     * Write the fields as members of the object currently open in out.
+     * With a previous state, only the fields that changed are written.
+     */
+    static void writeFields(JsonWriter out, Naming naming, int[] values, int[] previous) {
+        for (ScoreField field : ScoreField.ALL) {
+            int i = field.ordinal();
+            if (previous != null && previous[i] == values[i]) continue;
+            writeField(out, naming, field, values[i]);
+        }
+    }
+    
+    /**
+     * Write all fields of a snapshot alliance as members of the object open in out
+     */
+    static void writeFields(JsonWriter out, Naming naming, ScoreSnapshot.AllianceScore score) {
+        for (ScoreField field : ScoreField.ALL) {
+            writeField(out, naming, field, score.get(field));
+        }
+    }
+    
+    /**
+     * Write an alliance as a nested object with protocol names
+     */
+    static void writeObject(JsonWriter out, int[] values, int[] previous) {
+        out.beginObject();
+        writeFields(out, Naming.PROTOCOL, values, previous);
+        out.endObject();
+    }
+    
+    /**
+     * ScoreField ordinal for the key data[start, end), or -1
+     */
+    static int fieldIndex(Naming naming, byte[] data, int start, int end) {
+        int length = end - start;
+        if (length >= naming.byLength.length) return -1;
+        for (int f : naming.byLength[length]) {
+            if (Arrays.equals(data, start, end, naming.names[f], 0, length)) {
+                return f;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * BaseStatus ordinal for the unquoted name in data[start, end), or -1
+     */
+    static int baseIndex(byte[] data, int start, int end) {
+        for (int b = 0; b < BASE_NAMES.length; b++) {
+            if (Arrays.equals(data, start, end, BASE_NAMES[b], 0, BASE_NAMES[b].length)) {
+                return b;
+            }
+        }
+        return -1;
+    }
+    
+    private static void writeField(JsonWriter out, Naming naming, ScoreField field, int value) {
+        out.name(naming.keys[field.ordinal()]);
+        switch (field.getKind()) {
+            case FLAG: out.rawValue(value != 0 ? TRUE : FALSE); break;
+            case BASE: out.rawValue(BASE_VALUES[baseOrdinal(value)]); break;
+            default: out.value(value); break;
+        }
+    }
+    
+    private static int baseOrdinal(int value) {
+        // Same fallback as ScoreField.toBaseStatus
+        return value >= 0 && value < BASE_VALUES.length ? value : 0;
+    }
+    
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,168 @@
+package org.ftc.scorer.service;
+
+import org.ftc.scorer.model.ScoreField;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges per-field score operations from several scorers on the same alliance.
+ *
+ * Counters are PN-counters: every scorer connection (a replica) reports the running
+ * totals of what it has added (p) and removed (n) for each field. Totals from one
+ * replica are merged with max(), so a resent or reordered operation is harmless,
+ * and the value moves by the change in sum(p) - sum(n). Edits made directly on the
+ * host are not part of the counter; they act as the base the deltas are applied to.
+ *
+ * Flags and BASE status cannot be summed, so they are last-writer-wins registers
+ * ordered by the scorer's timestamp, with the device id breaking ties.
+ *
+ * Every accepted operation is recorded in a bounded audit log.
+ */
+public final class ScoreMerger {
+    private static final int MAX_AUDIT_ENTRIES = 1000;
+    
+    public static final int RED = 0;
+    public static final int BLUE = 1;
+    
+    // replica -> [alliance][field] running totals
+    private final Map<String, long[][]> increments = new HashMap<>();
+    private final Map<String, long[][]> decrements = new HashMap<>();
+    private final long[][] totalIncrements = new long[2][ScoreField.COUNT];
+    private final long[][] totalDecrements = new long[2][ScoreField.COUNT];
+    
+    // Last-writer-wins registers
+    private final long[][] registerStamps = new long[2][ScoreField.COUNT];
+    private final String[][] registerDevices = new String[2][ScoreField.COUNT];
+    
+    private final ArrayDeque<AuditEntry> audit = new ArrayDeque<>();
+    
+    /**
+     * Merge a replica's running totals for one counter field
+     * @return how much the field's value should change (0 if nothing new)
+     */
+    public synchronized int mergeCounter(String device, String replica, int alliance, ScoreField field,
+                                         long added, long removed) {
+        long[][] p = increments.computeIfAbsent(replica, r -> new long[2][ScoreField.COUNT]);
+        long[][] n = decrements.computeIfAbsent(replica, r -> new long[2][ScoreField.COUNT]);
+        int i = field.ordinal();
+        
+        long newAdded = Math.max(0, added - p[alliance][i]);
+        long newRemoved = Math.max(0, removed - n[alliance][i]);
+        if (newAdded == 0 && newRemoved == 0) {
+            return 0; // Duplicate or out-of-date report
+        }
+        
+        p[alliance][i] += newAdded;
+        n[alliance][i] += newRemoved;
+        totalIncrements[alliance][i] += newAdded;
+        totalDecrements[alliance][i] += newRemoved;
+        
+        int delta = (int) (newAdded - newRemoved);
+        record(new AuditEntry(System.currentTimeMillis(), device, alliance, field, delta, false));
+        return delta;
+    }
+    
+    /**
+     * Forget a replica whose connection closed. What it contributed stays in the
+     * totals; a reconnecting scorer starts a new replica, so these running totals
+     * would never be compared against again.
+     */
+    public synchronized void removeReplica(String replica) {
+        increments.remove(replica);
+        decrements.remove(replica);
+    }
+    
+    /**
+     * Replicas whose running totals are being tracked
+     */
+    public synchronized int getReplicaCount() {
+        return increments.size();
+    }
+    
+    /**
+     * Offer a write to a flag or BASE field
+     * @return true if this write is the newest and should be applied
+     */
+    public synchronized boolean mergeRegister(String device, int alliance, ScoreField field, long timestamp, int value) {
+        int i = field.ordinal();
+        String current = registerDevices[alliance][i];
+        boolean newer = current == null
+            || timestamp > registerStamps[alliance][i]
+            || (timestamp == registerStamps[alliance][i] && device.compareTo(current) > 0);
+        if (!newer) {
+            return false;
+        }
+        
+        registerStamps[alliance][i] = timestamp;
+        registerDevices[alliance][i] = device;
+        record(new AuditEntry(System.currentTimeMillis(), device, alliance, field, value, true));
+        return true;
+    }
+    
+    /**
+     * Net amount all scorers have added to a counter field (excludes host edits)
+     */
+    public synchronized long getNetContribution(int alliance, ScoreField field) {
+        return totalIncrements[alliance][field.ordinal()] - totalDecrements[alliance][field.ordinal()];
+    }
+    
+    /**
+     * Copy of the audit log, oldest first
+     */
+    public synchronized List<AuditEntry> getAuditLog() {
+        return new ArrayList<>(audit);
+    }
+    
+    private void record(AuditEntry entry) {
+        if (audit.size() == MAX_AUDIT_ENTRIES) {
+            audit.pollFirst();
+        }
+        audit.addLast(entry);
+    }
+    
+    /**
+     * One accepted operation: which device changed which field, and by how much
+     */
+    public static final class AuditEntry {
+        private final long timeMillis;
+        private final String device;
+        private final int alliance;
+        private final ScoreField field;
+        private final int amount;
+        private final boolean assignment;
+        
+        AuditEntry(long timeMillis, String device, int alliance, ScoreField field, int amount, boolean assignment) {
+            this.timeMillis = timeMillis;
+            this.device = device;
+            this.alliance = alliance;
+            this.field = field;
+            this.amount = amount;
+            this.assignment = assignment;
+        }
+        
+        public long getTimeMillis() { return timeMillis; }
+        public String getDevice() { return device; }
+        public String getAlliance() { return alliance == RED ? "RED" : "BLUE"; }
+        public ScoreField getField() { return field; }
+        
+        /**
+         * Change applied to a counter, or the value written for a flag/BASE field
+         */
+        public int getAmount() { return amount; }
+        
+        /**
+         * True for flag/BASE writes, false for counter deltas
+         */
+        public boolean isAssignment() { return assignment; }
+        
+        @Override
+        public String toString() {
+            return device + " " + getAlliance() + " " + field.getJsonName() +
+                   (assignment ? " = " + amount : (amount >= 0 ? " +" : " ") + amount);
+        }
+    }
+}
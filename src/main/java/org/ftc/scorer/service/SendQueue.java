@@ -0,0 +1,127 @@
+package org.ftc.scorer.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded outbound frame queue for one sync client.
+ *
+ * When the queue is full the caller replaces its contents with a fresh snapshot
+ * (latest state wins) instead of growing it. From the first overflow until the
+ * queue drains the client counts as lagging, and SyncServer disconnects clients
+ * that lag for too long.
+ */
+final class SendQueue {
+    private static final int MAX_GATHER = 16; // Queued frames handed to one gathering write
+    
+    private final ArrayDeque<ByteBuffer> frames = new ArrayDeque<>();
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private final int maxDepth;
+    private long laggingSinceNanos = 0;
+    private boolean lagging = false;
+    private boolean closed = false;
+    
+    SendQueue(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+    
+    /**
+     * Queue a frame.
+     * @return false if the queue is full and the frame was not queued
+     */
+    synchronized boolean offer(ByteBuffer frame) {
+        if (closed) return true;
+        if (frames.size() >= maxDepth) {
+            if (!lagging) {
+                lagging = true;
+                laggingSinceNanos = System.nanoTime();
+            }
+            return false;
+        }
+        frames.addLast(frame);
+        notifyAll();
+        return true;
+    }
+    
+    /**
+     * Drop everything still waiting and queue a snapshot in its place.
+     * A frame that is already partly on the wire is kept so the stream stays intact.
+     */
+    synchronized void replaceWith(ByteBuffer snapshot) {
+        if (closed) return;
+        ByteBuffer head = frames.peekFirst();
+        frames.clear();
+        if (head != null && head.position() > 0) {
+            frames.addLast(head);
+        }
+        frames.addLast(snapshot);
+        notifyAll();
+    }
+    
+    /**
+     * Non-blocking drain with a gathering write. Holding the lock during the write
+     * keeps replaceWith() from discarding a frame halfway through.
+     * @return true if the queue is now empty
+     */
+    synchronized boolean writeTo(GatheringByteChannel channel) throws IOException {
+        while (!frames.isEmpty()) {
+            int count = 0;
+            for (ByteBuffer buffer : frames) {
+                gather[count++] = buffer;
+                if (count == gather.length) break;
+            }
+            
+            channel.write(gather, 0, count);
+            
+            // Drop the frames that went out completely
+            for (int i = 0; i < count; i++) {
+                if (gather[i].hasRemaining()) break;
+                frames.pollFirst();
+            }
+            boolean blocked = gather[count - 1].hasRemaining();
+            Arrays.fill(gather, 0, count, null);
+            if (blocked) {
+                return false; // Socket buffer full
+            }
+        }
+        lagging = false;
+        return true;
+    }
+    
+    /**
+     * Blocking take for thread-per-client writers.
+     * @return the next frame, or null once the queue is closed
+     */
+    synchronized ByteBuffer take() throws InterruptedException {
+        while (frames.isEmpty() && !closed) {
+            lagging = false;
+            wait();
+        }
+        return closed ? null : frames.pollFirst();
+    }
+    
+    synchronized boolean isEmpty() {
+        return frames.isEmpty();
+    }
+    
+    synchronized int size() {
+        return frames.size();
+    }
+    
+    /**
+     * How long the client has been unable to keep up, or 0 if it is keeping up
+     */
+    synchronized long getLaggingMillis() {
+        return lagging ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - laggingSinceNanos) : 0;
+    }
+    
+    synchronized void close() {
+        closed = true;
+        frames.clear();
+        notifyAll();
+    }
+}
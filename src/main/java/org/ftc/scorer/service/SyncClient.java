@@ -1,13 +1,19 @@
 package org.ftc.scorer.service;
 
-import javafx.application.Platform;
 import org.ftc.scorer.model.DecodeScore;
 import org.ftc.scorer.model.Match;
+import org.ftc.scorer.model.ScoreField;
+import org.ftc.scorer.model.ScoreSnapshot;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Client for wireless score synchronization
@@ -18,20 +24,68 @@ import java.util.concurrent.Executors;
  * 2. Call connect(host, port) to establish connection
  * 3. Call setAlliance("RED" or "BLUE") to assign this device to an alliance
  * 4. Score updates will automatically sync with the server
+ * 
+ * The server sends a full snapshot on connect and then SCORE_DELTA messages that are
+ * applied in place. If a sequence number is skipped the client asks for a RESYNC.
+ * With setBinaryFrames(true) the client asks for compact binary score frames instead
+ * (see BinaryScoreCodec); the read loop accepts both formats on the same stream.
+ * 
+ * When several devices score the same alliance, use incrementField() and setField()
+ * instead of sendScoreUpdate(): they send per-field operations the server merges,
+ * so parallel scorers never overwrite each other's increments.
+ * 
+ * If the connection drops without disconnect() being called, the client reconnects
+ * on its own with jittered exponential backoff and sends RESUME with the session and
+ * last applied sequence number, so the server only replays the updates it missed.
+ * 
+ * sendScoreUpdate() is debounced: calls inside the update interval collapse into one
+ * trailing SCORE_UPDATE of the latest state. Each carries an increasing "cseq" so the
+ * server can drop updates that arrive stale or out of order.
  */
 public class SyncClient {
     private final Match match;
     private Socket socket;
-    private PrintWriter out;
-    private BufferedReader in;
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private OutputStream out;
+    private InputStream in;
+    private static final long RECONNECT_INITIAL_MS = 250;
+    private static final long RECONNECT_MAX_MS = 10000;
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int DEFAULT_UPDATE_INTERVAL_MS = 50;   // At most ~20 outbound updates per second
+    
+    private ExecutorService executor;
     private volatile boolean connected = false;
+    private volatile boolean closing = false;        // disconnect() was called - don't reconnect
+    private volatile boolean autoReconnect = true;
+    private volatile boolean reconnecting = false;
+    private volatile long reconnectCount = 0;
+    private final AtomicLong oversizedMessages = new AtomicLong();
+    private String host;
+    private int port;
+    private String sessionId = null; // Server session the sequence numbers belong to
     private String assignedAlliance = null;
     private Runnable onScoreUpdate;
     private Runnable onConnectionChange;
+    private volatile NotificationExecutor notifier = NotificationExecutor.direct();
+    private long lastSequence = -1; // Sequence of the last applied snapshot or delta
+    // Parser scratch space, listener thread only
+    private final JsonParser.ScoreMessage parsed = new JsonParser.ScoreMessage();
+    private final JsonParser.MessageView view = new JsonParser.MessageView();
+    private volatile boolean binaryFrames = false;
+    
+    // Per-field operation state; the running totals restart with each connection (replica)
+    private String deviceId = "device-" + UUID.randomUUID().toString().substring(0, 8);
+    private String replicaId;
+    private int connectionCount = 0;
+    private final long[] addedTotals = new long[ScoreField.COUNT];
+    private final long[] removedTotals = new long[ScoreField.COUNT];
+    
+    // Outbound SCORE_UPDATE debounce; cseq increases with every update actually sent
+    private final BroadcastCoalescer outbound;
+    private final AtomicLong clientSequence = new AtomicLong();
     
     public SyncClient(Match match) {
         this.match = match;
+        this.outbound = new BroadcastCoalescer(this::flushScoreUpdate, DEFAULT_UPDATE_INTERVAL_MS, "SyncClientSend");
     }
     
     /**
@@ -41,19 +95,24 @@ public class SyncClient {
      * @return true if connection successful
      */
     public boolean connect(String host, int port) {
+        this.host = host;
+        this.port = port;
+        closing = false;
+        lastSequence = -1;
+        sessionId = null;
         try {
-            socket = new Socket(host, port);
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            connected = true;
+            openConnection();
             
             // Start listening for messages
-            executor.submit(this::listenForMessages);
+            if (executor == null || executor.isShutdown()) {
+                executor = Executors.newSingleThreadExecutor();
+            }
+            executor.submit(this::runSession);
             
             System.out.println("Connected to sync server at " + host + ":" + port);
             
             if (onConnectionChange != null) {
-                Platform.runLater(onConnectionChange);
+                notifier.execute(onConnectionChange);
             }
             
             return true;
@@ -67,7 +126,49 @@ public class SyncClient {
      * Disconnect from the server
      */
     public void disconnect() {
+        closing = true;
         connected = false;
+        closeSocket();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        
+        if (onConnectionChange != null) {
+            notifier.execute(onConnectionChange);
+        }
+        
+        System.out.println("Disconnected from sync server");
+    }
+    
+    /**
+     * Open the socket and introduce this connection: RESUME first if there is a
+     * session to pick up, then the alliance and codec
+     */
+    private void openConnection() throws IOException {
+        Socket s = new Socket();
+        try {
+            s.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+        } catch (IOException e) {
+            s.close();
+            throw e;
+        }
+        socket = s;
+        out = new BufferedOutputStream(s.getOutputStream());
+        in = s.getInputStream();
+        connected = true;
+        synchronized (addedTotals) {
+            replicaId = deviceId + "#" + (++connectionCount);
+            Arrays.fill(addedTotals, 0);
+            Arrays.fill(removedTotals, 0);
+        }
+        
+        if (sessionId != null && lastSequence >= 0) {
+            send("{\"type\":\"RESUME\",\"session\":\"" + sessionId + "\",\"seq\":" + lastSequence + "}");
+        }
+        sendAssign();
+    }
+    
+    private void closeSocket() {
         try {
             if (in != null) in.close();
             if (out != null) out.close();
@@ -75,13 +176,87 @@ public class SyncClient {
         } catch (IOException e) {
             // Ignore
         }
-        executor.shutdownNow();
-        
-        if (onConnectionChange != null) {
-            Platform.runLater(onConnectionChange);
+    }
+    
+    /**
+     * Listener thread: read until the connection drops, then keep trying to
+     * reconnect until it succeeds or disconnect() is called
+     */
+    private void runSession() {
+        while (true) {
+            listenForMessages();
+            if (closing || !autoReconnect) {
+                return;
+            }
+            closeSocket();
+            
+            reconnecting = true;
+            try {
+                for (int attempt = 0; ; attempt++) {
+                    Thread.sleep(backoffDelay(attempt));
+                    if (closing) {
+                        return;
+                    }
+                    try {
+                        openConnection();
+                        break;
+                    } catch (IOException e) {
+                        System.err.println("Reconnect to " + host + ":" + port + " failed: " + e.getMessage());
+                    }
+                }
+            } catch (InterruptedException e) {
+                return; // disconnect() shut the executor down
+            } finally {
+                reconnecting = false;
+            }
+            
+            if (closing) {
+                closeSocket(); // disconnect() raced with the reconnect
+                return;
+            }
+            reconnectCount++;
+            System.out.println("Reconnected to sync server at " + host + ":" + port);
+            if (onConnectionChange != null) {
+                notifier.execute(onConnectionChange);
+            }
         }
-        
-        System.out.println("Disconnected from sync server");
+    }
+    
+    /**
+     * Exponential backoff with jitter: between half and all of min(max, initial * 2^attempt),
+     * so devices that lost the same access point don't all come back at once
+     */
+    private static long backoffDelay(int attempt) {
+        long ceiling = Math.min(RECONNECT_MAX_MS, RECONNECT_INITIAL_MS << Math.min(attempt, 16));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+    
+    /**
+     * Reconnect automatically when the connection drops (default true)
+     */
+    public void setAutoReconnect(boolean autoReconnect) {
+        this.autoReconnect = autoReconnect;
+    }
+    
+    /**
+     * True while the connection is down and reconnect attempts are running
+     */
+    public boolean isReconnecting() {
+        return reconnecting;
+    }
+    
+    /**
+     * Number of times the connection was re-established after dropping
+     */
+    public long getReconnectCount() {
+        return reconnectCount;
+    }
+    
+    /**
+     * Server lines dropped for running past SyncEventLoop.MAX_LINE_LENGTH without a newline
+     */
+    public long getOversizedMessages() {
+        return oversizedMessages.get();
     }
     
     /**
@@ -91,8 +266,28 @@ public class SyncClient {
     public void setAlliance(String alliance) {
         this.assignedAlliance = alliance;
         if (connected) {
-            send("{\"type\":\"ASSIGN\",\"alliance\":\"" + alliance + "\"}");
+            sendAssign();
+        }
+    }
+    
+    /**
+     * Ask the server for binary score frames instead of JSON.
+     * Set before connect(), or call setAlliance() afterwards to renegotiate.
+     */
+    public void setBinaryFrames(boolean binary) {
+        this.binaryFrames = binary;
+    }
+    
+    private void sendAssign() {
+        StringBuilder sb = new StringBuilder("{\"type\":\"ASSIGN\",\"device\":\"").append(deviceId).append("\"");
+        if (assignedAlliance != null) {
+            sb.append(",\"alliance\":\"").append(assignedAlliance).append("\"");
         }
+        if (binaryFrames) {
+            sb.append(",\"codec\":\"").append(BinaryScoreCodec.NAME).append("\"");
+        }
+        sb.append("}");
+        send(sb.toString());
     }
     
     /**
@@ -104,35 +299,114 @@ public class SyncClient {
     
     /**
      * Send current score update to server
-     * Only sends scores for the assigned alliance
+     * Only sends scores for the assigned alliance. Calls arriving faster than the
+     * update interval are merged into one update carrying the latest state.
      */
     public void sendScoreUpdate() {
         if (!connected || assignedAlliance == null) {
             return;
         }
+        outbound.markDirty();
+    }
+    
+    /**
+     * Minimum time between outbound score updates (0 sends on every call)
+     */
+    public void setUpdateIntervalMs(int intervalMs) {
+        outbound.setIntervalMs(intervalMs);
+    }
+    
+    /**
+     * Number of sendScoreUpdate() calls folded into a later update
+     */
+    public long getCoalescedUpdates() {
+        return outbound.getSuppressedCount();
+    }
+    
+    /**
+     * Send the latest state of the assigned alliance (coalescer thread)
+     */
+    private void flushScoreUpdate() {
+        String alliance = assignedAlliance;
+        if (!connected || alliance == null) {
+            return;
+        }
         
-        DecodeScore score = "RED".equals(assignedAlliance) ? 
-            match.getRedScore() : match.getBlueScore();
+        ScoreSnapshot snapshot = match.getSnapshot();
+        ScoreSnapshot.AllianceScore score = "RED".equals(alliance) ? 
+            snapshot.getRed() : snapshot.getBlue();
         
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\"type\":\"SCORE_UPDATE\",");
-        sb.append("\"alliance\":\"").append(assignedAlliance).append("\",");
-        sb.append("\"autoClassified\":").append(score.getAutoClassified()).append(",");
-        sb.append("\"autoOverflow\":").append(score.getAutoOverflow()).append(",");
-        sb.append("\"autoPatternMatches\":").append(score.getAutoPatternMatches()).append(",");
-        sb.append("\"teleopClassified\":").append(score.getTeleopClassified()).append(",");
-        sb.append("\"teleopOverflow\":").append(score.getTeleopOverflow()).append(",");
-        sb.append("\"teleopDepot\":").append(score.getTeleopDepot()).append(",");
-        sb.append("\"teleopPatternMatches\":").append(score.getTeleopPatternMatches()).append(",");
-        sb.append("\"robot1Leave\":").append(score.isRobot1Leave()).append(",");
-        sb.append("\"robot2Leave\":").append(score.isRobot2Leave()).append(",");
-        sb.append("\"robot1Base\":\"").append(score.getRobot1Base().name()).append("\",");
-        sb.append("\"robot2Base\":\"").append(score.getRobot2Base().name()).append("\",");
-        sb.append("\"majorFouls\":").append(score.getMajorFouls()).append(",");
-        sb.append("\"minorFouls\":").append(score.getMinorFouls());
-        sb.append("}");
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject();
+        json.name("type").value("SCORE_UPDATE");
+        json.name("cseq").value(clientSequence.incrementAndGet());
+        json.name("alliance").value(alliance);
+        ScoreCodec.writeFields(json, ScoreCodec.Naming.PROTOCOL, score);
+        json.endObject();
         
-        send(sb.toString());
+        send(json);
+    }
+    
+    /**
+     * Name this device reports to the server (shown in its audit log and latency list).
+     * Set before connect().
+     */
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+    
+    public String getDeviceId() {
+        return deviceId;
+    }
+    
+    /**
+     * Add to (or, with a negative amount, subtract from) a counter field of the
+     * assigned alliance. Merges with other scorers on the server.
+     */
+    public void incrementField(ScoreField field, int amount) {
+        if (!connected || assignedAlliance == null || amount == 0) {
+            return;
+        }
+        if (field.getKind() != ScoreField.Kind.COUNTER) {
+            throw new IllegalArgumentException(field + " is not a counter - use setField()");
+        }
+        
+        String message;
+        synchronized (addedTotals) {
+            int i = field.ordinal();
+            if (amount > 0) {
+                addedTotals[i] += amount;
+            } else {
+                removedTotals[i] -= amount;
+            }
+            message = "{\"type\":\"SCORE_OP\",\"device\":\"" + deviceId + "\",\"replica\":\"" + replicaId +
+                      "\",\"field\":\"" + field.getJsonName() + "\",\"p\":" + addedTotals[i] +
+                      ",\"n\":" + removedTotals[i] + "}";
+        }
+        send(message);
+    }
+    
+    /**
+     * Set a flag or BASE field of the assigned alliance (latest write wins on the server)
+     * @param value 0/1 for flags, the BaseStatus ordinal for BASE fields
+     */
+    public void setField(ScoreField field, int value) {
+        if (!connected || assignedAlliance == null) {
+            return;
+        }
+        if (field.getKind() == ScoreField.Kind.COUNTER) {
+            throw new IllegalArgumentException(field + " is a counter - use incrementField()");
+        }
+        send("{\"type\":\"SCORE_OP\",\"device\":\"" + deviceId + "\",\"field\":\"" + field.getJsonName() +
+             "\",\"value\":" + value + ",\"ts\":" + System.currentTimeMillis() + "}");
+    }
+    
+    /**
+     * Where onScoreUpdate and the other callbacks run (default: the calling thread).
+     * UI code passes FxNotifications.coalescing() to get them on the FX thread.
+     */
+    public void setNotificationExecutor(NotificationExecutor notifier) {
+        this.notifier = notifier;
     }
     
     /**
@@ -157,16 +431,83 @@ public class SyncClient {
     }
     
     private void send(String message) {
-        if (connected && out != null) {
-            out.println(message);
+        OutputStream stream = out;
+        if (connected && stream != null) {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            synchronized (stream) {
+                try {
+                    stream.write(bytes);
+                    stream.write('\n');
+                    stream.flush();
+                } catch (IOException e) {
+                    // The listener notices the broken connection and reconnects
+                }
+            }
+        }
+    }
+    
+    private void send(JsonWriter message) {
+        OutputStream stream = out;
+        if (connected && stream != null) {
+            synchronized (stream) {
+                try {
+                    message.writeLine(stream);
+                    stream.flush();
+                } catch (IOException e) {
+                    // The listener notices the broken connection and reconnects
+                }
+            }
         }
     }
     
     private void listenForMessages() {
+        byte[] buffer = new byte[4096];
+        int filled = 0;
+        boolean skippingLine = false; // Dropping the rest of an oversized line
         try {
-            String line;
-            while (connected && (line = in.readLine()) != null) {
-                processMessage(line);
+            int n;
+            while (connected && (n = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+                filled += n;
+                
+                // Handle every complete message straight from the buffer
+                int start = 0;
+                while (start < filled) {
+                    if (skippingLine) {
+                        while (start < filled && buffer[start] != '\n') start++;
+                        if (start == filled) break;
+                        start++;
+                        skippingLine = false;
+                    } else if (buffer[start] == BinaryScoreCodec.MARKER) {
+                        // Binary frame: marker, payload length, payload
+                        if (filled - start < 2 || filled - start < 2 + (buffer[start + 1] & 0xFF)) break;
+                        int size = buffer[start + 1] & 0xFF;
+                        processBinaryFrame(buffer, start + 2, size);
+                        start += 2 + size;
+                    } else {
+                        int newline = start;
+                        while (newline < filled && buffer[newline] != '\n') newline++;
+                        if (newline == filled) break;
+                        int end = newline > start && buffer[newline - 1] == '\r' ? newline - 1 : newline;
+                        processMessage(buffer, start, end - start);
+                        start = newline + 1;
+                    }
+                }
+                
+                // Keep the unfinished message at the front of the buffer
+                filled -= start;
+                System.arraycopy(buffer, start, buffer, 0, filled);
+                if (filled == buffer.length) {
+                    if (buffer.length >= SyncEventLoop.MAX_LINE_LENGTH) {
+                        // Same cap the server applies; a snapshot replaces whatever the line carried
+                        System.err.println("Server message exceeded max length, dropping it and resyncing");
+                        oversizedMessages.incrementAndGet();
+                        filled = 0;
+                        skippingLine = true;
+                        requestResync();
+                    } else {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                }
             }
         } catch (IOException e) {
             if (connected) {
@@ -175,64 +516,142 @@ public class SyncClient {
         } finally {
             connected = false;
             if (onConnectionChange != null) {
-                Platform.runLater(onConnectionChange);
+                notifier.execute(onConnectionChange);
             }
         }
     }
     
-    private void processMessage(String message) {
-        if (message.contains("\"type\":\"SCORE_UPDATE\"")) {
-            // Update local match state from server
-            try {
-                // Parse red scores
-                String redSection = JsonParser.extractSection(message, "\"red\":{", "}");
-                if (redSection != null) {
-                    applyScoreData(match.getRedScore(), redSection);
-                }
-                
-                // Parse blue scores
-                String blueSection = JsonParser.extractSection(message, "\"blue\":{", "}");
-                if (blueSection != null) {
-                    applyScoreData(match.getBlueScore(), blueSection);
-                }
-                
-                if (onScoreUpdate != null) {
-                    Platform.runLater(onScoreUpdate);
-                }
-            } catch (Exception e) {
-                System.err.println("Error parsing score update: " + e.getMessage());
+    /**
+     * Handle one JSON line, given as UTF-8 bytes in the read buffer
+     */
+    private void processMessage(byte[] data, int offset, int length) {
+        if (length == 0 || !view.wrap(data, offset, length)) {
+            return;
+        }
+        
+        if (view.typeIs("PING")) {
+            // Answer right away; t1/t2 let the server estimate our clock offset
+            long received = System.currentTimeMillis();
+            send("{\"type\":\"PONG\",\"id\":" + view.getLong("id", -1) +
+                 ",\"t1\":" + received + ",\"t2\":" + System.currentTimeMillis() + "}");
+        } else if (view.typeIs("SCORE_UPDATE")) {
+            // Full snapshot - update local match state from server
+            long seq = applySnapshotMessage(match, data, offset, length, parsed);
+            if (seq >= 0) {
+                lastSequence = seq;
+            }
+            
+            if (onScoreUpdate != null) {
+                notifier.execute(onScoreUpdate);
+            }
+        } else if (view.typeIs("SCORE_DELTA")) {
+            if (!JsonParser.parseScoreMessage(data, offset, length, parsed)) {
+                System.err.println("Error parsing score delta");
+                return;
+            }
+            if (!acceptDelta(parsed.seq)) {
+                return;
+            }
+            
+            // Only the fields present in the delta change
+            match.update(m -> {
+                applyFields(m.getRedScore(), parsed.red, parsed.redMask);
+                applyFields(m.getBlueScore(), parsed.blue, parsed.blueMask);
+            });
+            lastSequence = parsed.seq;
+            
+            if (onScoreUpdate != null) {
+                notifier.execute(onScoreUpdate);
             }
+        } else if (view.typeIs("SESSION")) {
+            // Remember the session so a reconnect can resume instead of starting over
+            sessionId = view.getString("session");
+        } else if (view.typeIs("ASSIGN_ACK")) {
+            System.out.println("Sync server accepted codec " + view.getString("codec"));
         }
     }
     
-    private void applyScoreData(DecodeScore score, String data) {
-        score.setAutoClassified(JsonParser.parseIntField(data, "autoClassified"));
-        score.setAutoOverflow(JsonParser.parseIntField(data, "autoOverflow"));
-        score.setAutoPatternMatches(JsonParser.parseIntField(data, "autoPatternMatches"));
-        score.setTeleopClassified(JsonParser.parseIntField(data, "teleopClassified"));
-        score.setTeleopOverflow(JsonParser.parseIntField(data, "teleopOverflow"));
-        score.setTeleopDepot(JsonParser.parseIntField(data, "teleopDepot"));
-        score.setTeleopPatternMatches(JsonParser.parseIntField(data, "teleopPatternMatches"));
-        score.setRobot1Leave(JsonParser.parseBoolField(data, "robot1Leave"));
-        score.setRobot2Leave(JsonParser.parseBoolField(data, "robot2Leave"));
-        score.setMajorFouls(JsonParser.parseIntField(data, "majorFouls"));
-        score.setMinorFouls(JsonParser.parseIntField(data, "minorFouls"));
-        
-        String base1 = JsonParser.parseStringField(data, "robot1Base");
-        String base2 = JsonParser.parseStringField(data, "robot2Base");
-        if (base1 != null) {
-            try {
-                score.setRobot1Base(DecodeScore.BaseStatus.valueOf(base1));
-            } catch (IllegalArgumentException e) {
-                // Ignore invalid enum
+    private void processBinaryFrame(byte[] data, int offset, int length) {
+        try {
+            BinaryScoreCodec.Frame frame = BinaryScoreCodec.decode(data, offset, length);
+            if (frame.kind == BinaryScoreCodec.KIND_DELTA && !acceptDelta(frame.seq)) {
+                return;
+            }
+            applyFrame(match, frame);
+            lastSequence = frame.seq;
+            
+            if (onScoreUpdate != null) {
+                notifier.execute(onScoreUpdate);
             }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error decoding binary frame: " + e.getMessage());
         }
-        if (base2 != null) {
-            try {
-                score.setRobot2Base(DecodeScore.BaseStatus.valueOf(base2));
-            } catch (IllegalArgumentException e) {
-                // Ignore invalid enum
+    }
+    
+    /**
+     * Check a delta's sequence number against the last applied state.
+     * Requests a resync when an update was missed.
+     * @return true if the delta should be applied
+     */
+    private boolean acceptDelta(long seq) {
+        if (seq <= lastSequence) {
+            return false; // Already covered by a newer snapshot
+        }
+        if (lastSequence < 0 || seq != lastSequence + 1) {
+            // Missed an update - the delta alone would leave us inconsistent
+            System.err.println("Sync gap (have " + lastSequence + ", got " + seq + "), requesting resync");
+            requestResync();
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Apply a decoded binary frame to both alliances as one change
+     */
+    static void applyFrame(Match match, BinaryScoreCodec.Frame frame) {
+        match.update(m -> {
+            applyFields(m.getRedScore(), frame.red, frame.redMask);
+            applyFields(m.getBlueScore(), frame.blue, frame.blueMask);
+        });
+    }
+    
+    /**
+     * Set the fields whose bit is set in mask (bit = ScoreField ordinal)
+     */
+    private static void applyFields(DecodeScore score, int[] values, int mask) {
+        for (ScoreField field : ScoreField.ALL) {
+            if ((mask & (1 << field.ordinal())) != 0) {
+                field.set(score, values[field.ordinal()]);
             }
         }
     }
+    
+    /**
+     * Ask the server for a full snapshot
+     */
+    public void requestResync() {
+        send("{\"type\":\"RESYNC\"}");
+    }
+    
+    /**
+     * Apply a JSON SCORE_UPDATE snapshot to both alliances of a match
+     * @param parsed scratch space for the parser, reused between calls
+     * @return the snapshot's sequence number, or -1 if it has none or is malformed
+     */
+    static long applySnapshotMessage(Match match, byte[] data, int offset, int length, JsonParser.ScoreMessage parsed) {
+        if (!JsonParser.parseScoreMessage(data, offset, length, parsed)) {
+            System.err.println("Ignoring malformed snapshot");
+            return -1;
+        }
+        match.update(m -> {
+            if (parsed.hasRed) {
+                JsonParser.applyAllianceFields(m.getRedScore(), parsed.red, parsed.redMask);
+            }
+            if (parsed.hasBlue) {
+                JsonParser.applyAllianceFields(m.getBlueScore(), parsed.blue, parsed.blueMask);
+            }
+        });
+        return parsed.seq;
+    }
 }
@@ -0,0 +1,288 @@
+package org.ftc.scorer.service;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Non-blocking transport for SyncServer.
+ * A single selector thread accepts connections, reads newline-delimited messages
+ * and drains each connection's write queue, so the thread count stays constant
+ * no matter how many tablets and displays are attached.
+ *
+ * Protocol handling stays in SyncServer - this class only moves bytes.
+ */
+final class SyncEventLoop implements Runnable {
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+    static final int MAX_LINE_LENGTH = 64 * 1024; // Drop clients that never send a newline
+    
+    private final SyncServer server;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<NioConnection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private Thread thread;
+    private volatile boolean running = false;
+    
+    private final int maxQueuedFrames;
+    
+    SyncEventLoop(SyncServer server, int port, int maxQueuedFrames) throws IOException {
+        this.server = server;
+        this.maxQueuedFrames = maxQueuedFrames;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            serverChannel.close();
+            selector.close();
+            throw e;
+        }
+    }
+    
+    void start() {
+        running = true;
+        thread = new Thread(this, "SyncEventLoop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    void stop() {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                
+                // Connections that had data queued from other threads since the last pass
+                NioConnection pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    pending.enableWrites();
+                }
+                
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    
+                    NioConnection connection = (NioConnection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (IOException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                System.err.println("Sync event loop failed: " + e.getMessage());
+            }
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof NioConnection) {
+                    ((NioConnection) key.attachment()).close();
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+    
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                NioConnection connection = new NioConnection(channel);
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+                server.onClientConnected(connection);
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Error accepting client: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * One client socket: a read buffer for partial lines and a queue of encoded
+     * messages waiting to be written.
+     */
+    private final class NioConnection implements SyncServer.Connection {
+        private final SocketChannel channel;
+        private final String remoteAddress;
+        private final SendQueue writeQueue = new SendQueue(maxQueuedFrames);
+        private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private SelectionKey key;
+        private volatile String assignedAlliance = null;
+        private volatile boolean binaryFrames = false;
+        private volatile boolean connected = true;
+        
+        NioConnection(SocketChannel channel) {
+            this.channel = channel;
+            String address;
+            try {
+                address = String.valueOf(((InetSocketAddress) channel.getRemoteAddress()).getAddress());
+            } catch (IOException e) {
+                address = "unknown";
+            }
+            this.remoteAddress = address;
+        }
+        
+        void read() throws IOException {
+            int n = channel.read(readBuffer);
+            if (n < 0) {
+                close();
+                return;
+            }
+            
+            // Dispatch every complete line straight from the buffer, keep the remainder for the next read
+            readBuffer.flip();
+            byte[] data = readBuffer.array();
+            int lineStart = 0;
+            for (int i = 0; i < readBuffer.limit(); i++) {
+                if (data[i] == '\n') {
+                    int end = i;
+                    if (end > lineStart && data[end - 1] == '\r') end--;
+                    server.onClientMessage(this, data, lineStart, end - lineStart);
+                    lineStart = i + 1;
+                    if (!connected) return;
+                }
+            }
+            readBuffer.position(lineStart);
+            readBuffer.compact();
+            
+            if (!readBuffer.hasRemaining()) {
+                if (readBuffer.capacity() >= MAX_LINE_LENGTH) {
+                    System.err.println("Client " + remoteAddress + " exceeded max message length");
+                    close();
+                    return;
+                }
+                ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+                readBuffer.flip();
+                larger.put(readBuffer);
+                readBuffer = larger;
+            }
+        }
+        
+        void flush() throws IOException {
+            if (!writeQueue.writeTo(channel)) {
+                return; // Socket buffer full - wait for the next OP_WRITE
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            
+            // A message may have been queued after the queue drained
+            if (!writeQueue.isEmpty()) {
+                enableWrites();
+            }
+        }
+        
+        void enableWrites() {
+            if (connected && key.isValid()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+        
+        @Override
+        public boolean send(ByteBuffer frame) {
+            if (!connected) return true;
+            if (!writeQueue.offer(frame.duplicate())) {
+                return false;
+            }
+            wakeForWrite();
+            return true;
+        }
+        
+        @Override
+        public void replaceQueued(ByteBuffer snapshot) {
+            writeQueue.replaceWith(snapshot.duplicate());
+            wakeForWrite();
+        }
+        
+        private void wakeForWrite() {
+            pendingWrites.offer(this);
+            selector.wakeup();
+        }
+        
+        @Override
+        public int getQueueDepth() {
+            return writeQueue.size();
+        }
+        
+        @Override
+        public long getLaggingMillis() {
+            return writeQueue.getLaggingMillis();
+        }
+        
+        @Override
+        public String getAssignedAlliance() {
+            return assignedAlliance;
+        }
+        
+        @Override
+        public void setAssignedAlliance(String alliance) {
+            this.assignedAlliance = alliance;
+        }
+        
+        @Override
+        public boolean usesBinaryFrames() {
+            return binaryFrames;
+        }
+        
+        @Override
+        public void setBinaryFrames(boolean binary) {
+            this.binaryFrames = binary;
+        }
+        
+        @Override
+        public String getRemoteAddress() {
+            return remoteAddress;
+        }
+        
+        @Override
+        public void close() {
+            if (!connected) return;
+            connected = false;
+            writeQueue.close();
+            if (key != null) key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+            server.onClientDisconnected(this);
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package org.ftc.scorer.service;
 
-import javafx.application.Platform;
+import org.ftc.scorer.model.DecodeScore;
 import org.ftc.scorer.model.Match;
+import org.ftc.scorer.model.ScoreField;
+import org.ftc.scorer.model.ScoreSnapshot;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Server for wireless score synchronization
@@ -22,19 +36,102 @@ import java.util.concurrent.Executors;
  * 
  * Protocol:
  * - Messages are JSON strings terminated by newline
- * - Server broadcasts full score state to all clients
- * - Clients send score updates for their assigned alliance
+ * - Server sends a full SCORE_UPDATE snapshot when a client joins and whenever it sends RESYNC
+ * - After that, changes go out as SCORE_DELTA messages holding only the fields that moved
+ * - Snapshots and deltas carry a sequence number; a client that sees a gap asks for RESYNC
+ * - A client joins with its first message, or after HELLO_GRACE_MS if it sends nothing.
+ *   The server answers with {"type":"SESSION","session":"..."} and then the snapshot.
+ * - A client that lost its connection can make its first message
+ *     {"type":"RESUME","session":"...","seq":41}
+ *   and the server replays only the deltas after seq from a short history ring.
+ *   If the session is from another server run or the gap is older than
+ *   REPLAY_HISTORY, it gets SESSION and a snapshot instead.
+ * - Clients send score updates for their assigned alliance, either as a full
+ *   SCORE_UPDATE (replaces the alliance) or as per-field SCORE_OP messages that merge
+ *   with other scorers on the same alliance (see ScoreMerger):
+ *     {"type":"SCORE_OP","device":"ref-1","replica":"ref-1#2","field":"teleopClassified","p":5,"n":1}
+ *     {"type":"SCORE_OP","device":"ref-1","field":"robot1Base","value":2,"ts":1730000000000}
+ *   p/n are the running totals the replica has added/removed; value uses the
+ *   ScoreField int form (flags 0/1, BASE ordinal) and ts orders competing writes
+ * - A client SCORE_UPDATE may carry "cseq", a number that increases with every update
+ *   the client sends. Updates whose cseq is not above the last one seen on that
+ *   connection are stale and dropped.
+ * - A client may add "codec":"bin1" to its ASSIGN message; the server answers with
+ *   ASSIGN_ACK and from then on sends snapshots and deltas as compact binary frames
+ *   (see BinaryScoreCodec). Other messages, and everything clients send, stay JSON.
+ * - Optionally, every binary frame is also published once to a multicast group for
+ *   read-only displays (see MulticastSubscriber), which then need no TCP connection
+ * 
+ * - Once a second the server sends {"type":"PING","id":7} and the client answers
+ *   {"type":"PONG","id":7,"t1":<received, client ms>,"t2":<sent, client ms>}.
+ *   The round trip (including time spent in the send queue) goes into a per-client
+ *   histogram, and t1/t2 give an NTP-style estimate of the client's clock offset.
+ *   A client whose p99 round trip is above DEGRADED_RTT_MS is marked degraded.
+ *   Clients may add "device":"<name>" to ASSIGN so they are listed by name.
+ * 
+ * Transports:
+ * - EVENT_LOOP (default): one selector thread serves every client (see SyncEventLoop)
+ * - THREAD_PER_CLIENT: legacy blocking sockets, a reader and a writer thread per device
+ * 
+ * Broadcasts never write to sockets on the caller's thread. Each client has a bounded
+ * queue; a client that falls behind gets its backlog replaced by one fresh snapshot,
+ * and a client that stays behind for SLOW_CONSUMER_TIMEOUT_MS is disconnected.
  */
 public class SyncServer {
     private static final int DEFAULT_PORT = 5555;
+    private static final int DEFAULT_BROADCAST_INTERVAL_MS = 33; // ~30 updates per second at most
+    private static final int MAX_QUEUED_FRAMES = 64;             // Per-client backlog before latest-state-wins kicks in
+    private static final long SLOW_CONSUMER_TIMEOUT_MS = 5000;   // Disconnect clients that lag this long
+    private static final long MULTICAST_KEYFRAME_MS = 2000;      // Snapshot interval for multicast subscribers
+    public static final String DEFAULT_MULTICAST_GROUP = "239.255.55.55"; // Organization-local scope
+    public static final int DEFAULT_MULTICAST_PORT = 5556;
+    private static final int REPLAY_HISTORY = 32;                // Deltas kept for RESUME; past this a snapshot is smaller anyway
+    private static final long HELLO_GRACE_MS = 250;              // Wait this long for RESUME before sending a snapshot
+    private static final long PING_INTERVAL_MS = 1000;
+    private static final int LATENCY_WINDOW = 30;                // Pings the percentiles cover
+    private static final long DEGRADED_RTT_MS = 250;             // p99 round trip that marks a client degraded
+    
+    // Per reader thread (the event loop, or each legacy ClientHandler)
+    private static final ThreadLocal<JsonParser.ScoreMessage> SCORE_MESSAGE =
+        ThreadLocal.withInitial(JsonParser.ScoreMessage::new);
+    private static final ThreadLocal<JsonParser.MessageView> MESSAGE_VIEW =
+        ThreadLocal.withInitial(JsonParser.MessageView::new);
     
     private final Match match;
     private ServerSocket serverSocket;
-    private final List<ClientHandler> clients = new CopyOnWriteArrayList<>();
-    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private SyncEventLoop eventLoop;
+    private final List<Connection> clients = new CopyOnWriteArrayList<>();
+    private ExecutorService executor;
     private volatile boolean running = false;
     private int port;
+    private TransportMode transportMode = TransportMode.EVENT_LOOP;
     private Runnable onScoreUpdate;
+    private volatile NotificationExecutor notifier = NotificationExecutor.direct();
+    private volatile BroadcastCoalescer broadcaster;   // Created by start(), shut down by stop()
+    private volatile int broadcastIntervalMs = DEFAULT_BROADCAST_INTERVAL_MS;
+    private volatile MulticastPublisher multicast;
+    private final AtomicLong queueResets = new AtomicLong();
+    private final AtomicLong evictedClients = new AtomicLong();
+    private final ScoreMerger merger = new ScoreMerger();
+    private final String sessionId = UUID.randomUUID().toString().substring(0, 8);
+    private final Set<Connection> pending = ConcurrentHashMap.newKeySet(); // Connected, not yet joined
+    private volatile ScheduledExecutorService timer;   // Hello grace periods and pings; per start()
+    private final Map<Connection, LinkStats> links = new ConcurrentHashMap<>();
+    private ScheduledFuture<?> pingTask;
+    private final AtomicLong resumedSessions = new AtomicLong();
+    private final AtomicLong staleUpdates = new AtomicLong();
+    private final AtomicLong rejectedClients = new AtomicLong();
+    private volatile int maxClients = 0;               // 0 = no limit
+    
+    // Last broadcast state, used to compute deltas (guarded by this)
+    private long sequence = 0;
+    private ScoreSnapshot lastSnapshot;
+    private int[] lastRed;
+    private int[] lastBlue;
+    
+    // State after each recent sequence number, indexed by seq % length (guarded by this)
+    private final int[][] historyRed = new int[REPLAY_HISTORY + 1][];
+    private final int[][] historyBlue = new int[REPLAY_HISTORY + 1][];
     
     public SyncServer(Match match) {
         this.match = match;
@@ -48,30 +145,47 @@ public class SyncServer {
      */
     public boolean start(int port) {
         this.port = port;
+        // Fresh threads per run; stop() shuts them down so nothing ticks against a closed transport
+        broadcaster = new BroadcastCoalescer(this::flushBroadcast, broadcastIntervalMs, "SyncBroadcast");
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "SyncTimer");
+            t.setDaemon(true);
+            return t;
+        });
         try {
-            serverSocket = new ServerSocket(port);
-            running = true;
-            
-            executor.submit(() -> {
-                while (running) {
-                    try {
-                        Socket clientSocket = serverSocket.accept();
-                        ClientHandler handler = new ClientHandler(clientSocket);
-                        clients.add(handler);
-                        executor.submit(handler);
-                        System.out.println("Client connected from: " + clientSocket.getInetAddress());
-                    } catch (IOException e) {
-                        if (running) {
-                            System.err.println("Error accepting client: " + e.getMessage());
+            if (transportMode == TransportMode.EVENT_LOOP) {
+                eventLoop = new SyncEventLoop(this, port, MAX_QUEUED_FRAMES);
+                running = true;
+                eventLoop.start();
+            } else {
+                serverSocket = new ServerSocket(port);
+                executor = Executors.newCachedThreadPool();
+                running = true;
+                
+                executor.submit(() -> {
+                    while (running) {
+                        try {
+                            Socket clientSocket = serverSocket.accept();
+                            ClientHandler handler = new ClientHandler(clientSocket);
+                            onClientConnected(handler);
+                            executor.submit(handler);
+                        } catch (IOException e) {
+                            if (running) {
+                                System.err.println("Error accepting client: " + e.getMessage());
+                            }
                         }
                     }
-                }
-            });
+                });
+            }
             
-            System.out.println("Sync server started on port " + port);
+            pingTask = timer.scheduleAtFixedRate(this::pingClients, PING_INTERVAL_MS, PING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            System.out.println("Sync server started on port " + port + " (" + transportMode + ")");
             return true;
         } catch (IOException e) {
             System.err.println("Failed to start sync server on port " + port + ": " + e.getMessage());
+            running = false;
+            timer.shutdownNow();
+            broadcaster.shutdown();
             return false;
         }
     }
@@ -88,29 +202,286 @@ public class SyncServer {
      */
     public void stop() {
         running = false;
-        for (ClientHandler client : clients) {
+        stopMulticast();
+        if (pingTask != null) {
+            pingTask.cancel(false);
+            pingTask = null;
+        }
+        for (Connection client : clients) {
+            client.close();
+        }
+        for (Connection client : pending) {
             client.close();
         }
         clients.clear();
+        pending.clear();
+        for (LinkStats link : links.values()) {
+            link.forgetReplicas(merger);
+        }
+        links.clear();
+        if (eventLoop != null) {
+            eventLoop.stop();
+            eventLoop = null;
+        }
         try {
             if (serverSocket != null) {
                 serverSocket.close();
+                serverSocket = null;
             }
         } catch (IOException e) {
             // Ignore
         }
-        executor.shutdownNow();
-        System.out.println("Sync server stopped");
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        // After the transport, so no new connection can schedule on a dead timer
+        long coalesced = 0;
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+        if (broadcaster != null) {
+            broadcaster.shutdown();
+            coalesced = broadcaster.getSuppressedCount();
+        }
+        System.out.println("Sync server stopped (" + coalesced + " broadcasts coalesced)");
+    }
+    
+    /**
+     * Also publish score frames to a multicast group for read-only displays
+     * @param networkInterface interface to publish on, or null for the system default
+     * @return true if the publisher was set up
+     */
+    public boolean startMulticast(String group, int port, NetworkInterface networkInterface) {
+        stopMulticast();
+        try {
+            multicast = new MulticastPublisher(group, port, networkInterface, this::buildBinarySnapshot, MULTICAST_KEYFRAME_MS);
+            System.out.println("Publishing scores to multicast group " + multicast.getGroupAddress());
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to start multicast on " + group + ":" + port + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    public void stopMulticast() {
+        MulticastPublisher publisher = multicast;
+        multicast = null;
+        if (publisher != null) {
+            publisher.close();
+        }
+    }
+    
+    public boolean isMulticastEnabled() {
+        return multicast != null;
     }
     
     /**
-     * Broadcast current score state to all connected clients
+     * Choose how client sockets are served. Takes effect on the next start().
+     */
+    public void setTransportMode(TransportMode mode) {
+        this.transportMode = mode;
+    }
+    
+    public TransportMode getTransportMode() {
+        return transportMode;
+    }
+    
+    /**
+     * Schedule a broadcast of the current scores to all connected clients.
+     * Calls arriving faster than the broadcast interval are merged into one
+     * broadcast of the latest state, so this is cheap to call on every change.
      */
     public void broadcastScores() {
-        String message = buildScoreMessage();
-        for (ClientHandler client : clients) {
-            client.send(message);
+        BroadcastCoalescer current = broadcaster;
+        if (running && current != null) {
+            current.markDirty();
+        }
+    }
+    
+    /**
+     * Minimum time between broadcasts (0 broadcasts on every call)
+     */
+    public void setBroadcastIntervalMs(int intervalMs) {
+        broadcastIntervalMs = intervalMs;
+        BroadcastCoalescer current = broadcaster;
+        if (current != null) {
+            current.setIntervalMs(intervalMs);
+        }
+    }
+    
+    /**
+     * Number of broadcastScores() calls merged into a later broadcast since the last start()
+     */
+    public long getSuppressedBroadcasts() {
+        BroadcastCoalescer current = broadcaster;
+        return current != null ? current.getSuppressedCount() : 0;
+    }
+    
+    /**
+     * Send score changes since the last broadcast to all connected clients.
+     * Sends nothing if no field changed.
+     */
+    private synchronized void flushBroadcast() {
+        ScoreSnapshot snapshot = match.getSnapshot();
+        if (lastSnapshot != null && snapshot.getVersion() == lastSnapshot.getVersion()) {
+            return;
+        }
+        int[] red = snapshot.getRed().toArray();
+        int[] blue = snapshot.getBlue().toArray();
+        
+        if (lastRed != null && Arrays.equals(red, lastRed) && Arrays.equals(blue, lastBlue)) {
+            lastSnapshot = snapshot; // Only state or motif changed - nothing on the wire
+            return;
+        }
+        
+        sequence++;
+        int[] previousRed = lastRed;
+        int[] previousBlue = lastBlue;
+        lastRed = red;
+        lastBlue = blue;
+        lastSnapshot = snapshot;
+        historyRed[(int) (sequence % historyRed.length)] = red;
+        historyBlue[(int) (sequence % historyBlue.length)] = blue;
+        
+        // Encode once per format; every client writes from its own view of the same bytes
+        ByteBuffer jsonFrame = null;
+        ByteBuffer binaryFrame = null;
+        ByteBuffer jsonSnapshot = null;
+        ByteBuffer binarySnapshot = null;
+        
+        MulticastPublisher publisher = multicast;
+        if (publisher != null) {
+            binaryFrame = encodeBinaryFrame(red, blue, previousRed, previousBlue);
+            publisher.publish(binaryFrame);
+        }
+        
+        for (Connection client : clients) {
+            boolean sent;
+            if (client.usesBinaryFrames()) {
+                if (binaryFrame == null) {
+                    binaryFrame = encodeBinaryFrame(red, blue, previousRed, previousBlue);
+                }
+                sent = client.send(binaryFrame);
+            } else {
+                if (jsonFrame == null) {
+                    jsonFrame = previousRed == null
+                        ? buildScoreMessage(red, blue)
+                        : buildDeltaMessage(sequence, red, blue, previousRed, previousBlue);
+                }
+                sent = client.send(jsonFrame);
+            }
+            
+            if (!sent) {
+                // Backlog full - the latest full state replaces everything still queued
+                if (client.usesBinaryFrames()) {
+                    if (binarySnapshot == null) {
+                        binarySnapshot = BinaryScoreCodec.encodeSnapshot(sequence, red, blue);
+                    }
+                    client.replaceQueued(binarySnapshot);
+                } else {
+                    if (jsonSnapshot == null) {
+                        jsonSnapshot = buildScoreMessage(red, blue);
+                    }
+                    client.replaceQueued(jsonSnapshot);
+                }
+                queueResets.incrementAndGet();
+            }
+            evictIfStalled(client);
+        }
+    }
+    
+    private ByteBuffer encodeBinaryFrame(int[] red, int[] blue, int[] previousRed, int[] previousBlue) {
+        return previousRed == null
+            ? BinaryScoreCodec.encodeSnapshot(sequence, red, blue)
+            : BinaryScoreCodec.encodeDelta(sequence, red, blue, previousRed, previousBlue);
+    }
+    
+    /**
+     * Binary snapshot of the last broadcast state, or null before the first broadcast
+     */
+    private synchronized ByteBuffer buildBinarySnapshot() {
+        return lastRed == null ? null : BinaryScoreCodec.encodeSnapshot(sequence, lastRed, lastBlue);
+    }
+    
+    private void evictIfStalled(Connection client) {
+        long lagging = client.getLaggingMillis();
+        if (lagging > SLOW_CONSUMER_TIMEOUT_MS) {
+            System.err.println("Disconnecting slow client " + client.getRemoteAddress() + 
+                               " (behind for " + lagging + " ms)");
+            evictedClients.incrementAndGet();
+            client.close();
+        }
+    }
+    
+    /**
+     * Encode a message plus its newline terminator into a read-only heap buffer.
+     * Used for per-connection messages (pings, acks, replays) that are sent once, where
+     * a direct allocation costs more than the copy the socket write makes; frames shared
+     * by a whole broadcast go through JsonWriter.toFrame() into direct buffers instead.
+     */
+    static ByteBuffer encodeFrame(String message) {
+        int length = message.length();
+        boolean ascii = true;
+        for (int i = 0; i < length && ascii; i++) {
+            ascii = message.charAt(i) < 0x80;
         }
+        
+        ByteBuffer frame;
+        if (ascii) {
+            // Protocol messages are plain ASCII - copy chars straight in without a byte[] detour
+            frame = ByteBuffer.allocate(length + 1);
+            for (int i = 0; i < length; i++) {
+                frame.put((byte) message.charAt(i));
+            }
+        } else {
+            byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            frame = ByteBuffer.allocate(bytes.length + 1);
+            frame.put(bytes);
+        }
+        frame.put((byte) '\n');
+        frame.flip();
+        return frame.asReadOnlyBuffer();
+    }
+    
+    /**
+     * Deepest outbound queue across connected clients
+     */
+    public int getMaxQueueDepth() {
+        int max = 0;
+        for (Connection client : clients) {
+            max = Math.max(max, client.getQueueDepth());
+        }
+        return max;
+    }
+    
+    /**
+     * Number of times a client's backlog was replaced by a snapshot
+     */
+    public long getQueueResets() {
+        return queueResets.get();
+    }
+    
+    /**
+     * Number of clients disconnected for not keeping up
+     */
+    public long getEvictedClients() {
+        return evictedClients.get();
+    }
+    
+    /**
+     * Current broadcast sequence number
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+    
+    /**
+     * Where onScoreUpdate and the other callbacks run (default: the calling thread).
+     * UI code passes FxNotifications.coalescing() to get them on the FX thread.
+     */
+    public void setNotificationExecutor(NotificationExecutor notifier) {
+        this.notifier = notifier;
     }
     
     /**
@@ -153,6 +524,24 @@ public class SyncServer {
         return clients.size();
     }
     
+    /**
+     * Refuse connections beyond this many clients (0 for no limit)
+     */
+    public void setMaxClients(int maxClients) {
+        this.maxClients = Math.max(0, maxClients);
+    }
+    
+    public int getMaxClients() {
+        return maxClients;
+    }
+    
+    /**
+     * Number of connections refused because the client limit was reached
+     */
+    public long getRejectedClients() {
+        return rejectedClients.get();
+    }
+    
     /**
      * Check if server is running
      */
@@ -160,107 +549,589 @@ public class SyncServer {
         return running;
     }
     
-    private String buildScoreMessage() {
-        // Build JSON-like message with current scores
-        StringBuilder sb = new StringBuilder();
-        sb.append("{\"type\":\"SCORE_UPDATE\",");
-        sb.append("\"redScore\":").append(match.getRedTotalScore()).append(",");
-        sb.append("\"blueScore\":").append(match.getBlueTotalScore()).append(",");
-        
-        // Red score details
-        sb.append("\"red\":{");
-        sb.append("\"autoClassified\":").append(match.getRedScore().getAutoClassified()).append(",");
-        sb.append("\"autoOverflow\":").append(match.getRedScore().getAutoOverflow()).append(",");
-        sb.append("\"autoPatternMatches\":").append(match.getRedScore().getAutoPatternMatches()).append(",");
-        sb.append("\"teleopClassified\":").append(match.getRedScore().getTeleopClassified()).append(",");
-        sb.append("\"teleopOverflow\":").append(match.getRedScore().getTeleopOverflow()).append(",");
-        sb.append("\"teleopDepot\":").append(match.getRedScore().getTeleopDepot()).append(",");
-        sb.append("\"teleopPatternMatches\":").append(match.getRedScore().getTeleopPatternMatches()).append(",");
-        sb.append("\"robot1Leave\":").append(match.getRedScore().isRobot1Leave()).append(",");
-        sb.append("\"robot2Leave\":").append(match.getRedScore().isRobot2Leave()).append(",");
-        sb.append("\"robot1Base\":\"").append(match.getRedScore().getRobot1Base().name()).append("\",");
-        sb.append("\"robot2Base\":\"").append(match.getRedScore().getRobot2Base().name()).append("\",");
-        sb.append("\"majorFouls\":").append(match.getRedScore().getMajorFouls()).append(",");
-        sb.append("\"minorFouls\":").append(match.getRedScore().getMinorFouls());
-        sb.append("},");
-        
-        // Blue score details
-        sb.append("\"blue\":{");
-        sb.append("\"autoClassified\":").append(match.getBlueScore().getAutoClassified()).append(",");
-        sb.append("\"autoOverflow\":").append(match.getBlueScore().getAutoOverflow()).append(",");
-        sb.append("\"autoPatternMatches\":").append(match.getBlueScore().getAutoPatternMatches()).append(",");
-        sb.append("\"teleopClassified\":").append(match.getBlueScore().getTeleopClassified()).append(",");
-        sb.append("\"teleopOverflow\":").append(match.getBlueScore().getTeleopOverflow()).append(",");
-        sb.append("\"teleopDepot\":").append(match.getBlueScore().getTeleopDepot()).append(",");
-        sb.append("\"teleopPatternMatches\":").append(match.getBlueScore().getTeleopPatternMatches()).append(",");
-        sb.append("\"robot1Leave\":").append(match.getBlueScore().isRobot1Leave()).append(",");
-        sb.append("\"robot2Leave\":").append(match.getBlueScore().isRobot2Leave()).append(",");
-        sb.append("\"robot1Base\":\"").append(match.getBlueScore().getRobot1Base().name()).append("\",");
-        sb.append("\"robot2Base\":\"").append(match.getBlueScore().getRobot2Base().name()).append("\",");
-        sb.append("\"majorFouls\":").append(match.getBlueScore().getMajorFouls()).append(",");
-        sb.append("\"minorFouls\":").append(match.getBlueScore().getMinorFouls());
-        sb.append("}}");
-        
-        return sb.toString();
-    }
-    
-    private void applyScoreUpdate(String message, String alliance) {
-        // Parse and apply score update from client
-        try {
-            if (message.startsWith("{") && message.contains("\"type\":\"SCORE_UPDATE\"")) {
-                org.ftc.scorer.model.DecodeScore score = 
-                    "RED".equals(alliance) ? match.getRedScore() : match.getBlueScore();
-                
-                // Parse fields using shared JsonParser
-                score.setAutoClassified(JsonParser.parseIntField(message, "autoClassified"));
-                score.setAutoOverflow(JsonParser.parseIntField(message, "autoOverflow"));
-                score.setAutoPatternMatches(JsonParser.parseIntField(message, "autoPatternMatches"));
-                score.setTeleopClassified(JsonParser.parseIntField(message, "teleopClassified"));
-                score.setTeleopOverflow(JsonParser.parseIntField(message, "teleopOverflow"));
-                score.setTeleopDepot(JsonParser.parseIntField(message, "teleopDepot"));
-                score.setTeleopPatternMatches(JsonParser.parseIntField(message, "teleopPatternMatches"));
-                score.setRobot1Leave(JsonParser.parseBoolField(message, "robot1Leave"));
-                score.setRobot2Leave(JsonParser.parseBoolField(message, "robot2Leave"));
-                score.setMajorFouls(JsonParser.parseIntField(message, "majorFouls"));
-                score.setMinorFouls(JsonParser.parseIntField(message, "minorFouls"));
-                
-                String base1 = JsonParser.parseStringField(message, "robot1Base");
-                String base2 = JsonParser.parseStringField(message, "robot2Base");
-                if (base1 != null) {
-                    score.setRobot1Base(org.ftc.scorer.model.DecodeScore.BaseStatus.valueOf(base1));
+    private ByteBuffer buildScoreMessage(int[] red, int[] blue) {
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject();
+        json.name("type").value("SCORE_UPDATE");
+        json.name("seq").value(sequence);
+        json.name("redScore").value(lastSnapshot.getRedTotal());
+        json.name("blueScore").value(lastSnapshot.getBlueTotal());
+        json.name("red");
+        ScoreCodec.writeObject(json, red, null);
+        json.name("blue");
+        ScoreCodec.writeObject(json, blue, null);
+        json.endObject();
+        return json.toFrame();
+    }
+    
+    /**
+     * Only the fields that differ from the last broadcast, keyed by alliance.
+     * Values are absolute, so applying a delta twice is harmless.
+     */
+    private ByteBuffer buildDeltaMessage(long seq, int[] red, int[] blue, int[] previousRed, int[] previousBlue) {
+        JsonWriter json = ScoreCodec.writer();
+        json.beginObject();
+        json.name("type").value("SCORE_DELTA");
+        json.name("seq").value(seq);
+        if (!Arrays.equals(red, previousRed)) {
+            json.name("red");
+            ScoreCodec.writeObject(json, red, previousRed);
+        }
+        if (!Arrays.equals(blue, previousBlue)) {
+            json.name("blue");
+            ScoreCodec.writeObject(json, blue, previousBlue);
+        }
+        json.endObject();
+        return json.toFrame();
+    }
+    
+    private void applyScoreUpdate(byte[] data, int offset, int length, String alliance) {
+        // Parse in one pass outside the lock, then apply as one change
+        JsonParser.ScoreMessage parsed = SCORE_MESSAGE.get();
+        if (!JsonParser.parseScoreMessage(data, offset, length, parsed)) {
+            System.err.println("Error parsing score update");
+            return;
+        }
+        
+        match.update(m -> JsonParser.applyAllianceFields(
+            "RED".equals(alliance) ? m.getRedScore() : m.getBlueScore(), parsed.fields, parsed.fieldMask));
+        
+        // Notify UI to update
+        if (onScoreUpdate != null) {
+            notifier.execute(onScoreUpdate);
+        }
+        
+        // Broadcast to all clients
+        broadcastScores();
+    }
+    
+    private void applyScoreOp(Connection client, JsonParser.MessageView message) {
+        ScoreField field = message.getScoreField("field");
+        LinkStats link = linkStats(client);
+        String device = link.device(message);
+        if (field == null || device == null) {
+            System.err.println("Ignoring malformed score operation from " + client.getRemoteAddress());
+            return;
+        }
+        int side = "RED".equals(client.getAssignedAlliance()) ? ScoreMerger.RED : ScoreMerger.BLUE;
+        
+        // Read everything now - the message bytes are only valid during this call
+        long added = message.getLong("p", -1);
+        long removed = message.getLong("n", -1);
+        long timestamp = message.getLong("ts", -1);
+        int value = (int) message.getLong("value", 0);
+        String replica = field.getKind() == ScoreField.Kind.COUNTER ? link.replica(message, device) : null;
+        
+        boolean[] changed = new boolean[1];
+        match.update(m -> {
+            DecodeScore score = side == ScoreMerger.RED ? m.getRedScore() : m.getBlueScore();
+            if (field.getKind() == ScoreField.Kind.COUNTER) {
+                int delta = merger.mergeCounter(device, replica, side, field, added, removed);
+                if (delta != 0) {
+                    field.set(score, field.get(score) + delta);
+                    changed[0] = true;
                 }
-                if (base2 != null) {
-                    score.setRobot2Base(org.ftc.scorer.model.DecodeScore.BaseStatus.valueOf(base2));
+            } else {
+                if (merger.mergeRegister(device, side, field, timestamp, value)) {
+                    field.set(score, value);
+                    changed[0] = true;
                 }
-                
-                // Notify UI to update
-                if (onScoreUpdate != null) {
-                    Platform.runLater(onScoreUpdate);
+            }
+        });
+        
+        if (changed[0]) {
+            if (onScoreUpdate != null) {
+                notifier.execute(onScoreUpdate);
+            }
+            broadcastScores();
+        }
+    }
+    
+    /**
+     * Number of client SCORE_UPDATEs dropped because a newer one had already arrived
+     */
+    public long getStaleUpdates() {
+        return staleUpdates.get();
+    }
+    
+    /**
+     * Accepted score operations, oldest first, with the device that sent each one
+     */
+    public List<ScoreMerger.AuditEntry> getScoreAudit() {
+        return merger.getAuditLog();
+    }
+    
+    /**
+     * Scorer connections whose operation totals are held for merging (open connections only)
+     */
+    public int getTrackedReplicas() {
+        return merger.getReplicaCount();
+    }
+    
+    // Transport callbacks - invoked by ClientHandler threads or the SyncEventLoop thread
+    
+    void onClientConnected(Connection client) {
+        int limit = maxClients;
+        if (limit > 0 && clients.size() + pending.size() >= limit) {
+            System.err.println("Rejecting client " + client.getRemoteAddress() + " (limit of " + limit + " reached)");
+            rejectedClients.incrementAndGet();
+            client.close();
+            return;
+        }
+        System.out.println("Client connected from: " + client.getRemoteAddress());
+        
+        // Give a reconnecting client the chance to RESUME before paying for a snapshot
+        pending.add(client);
+        timer.schedule(() -> join(client), HELLO_GRACE_MS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Handle one received line, given as the raw UTF-8 bytes in the transport's read
+     * buffer. The bytes are only valid during the call.
+     */
+    void onClientMessage(Connection client, byte[] data, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        JsonParser.MessageView message = MESSAGE_VIEW.get();
+        if (!message.wrap(data, offset, length)) {
+            System.err.println("Ignoring malformed message from " + client.getRemoteAddress() + ": " +
+                               new String(data, offset, length, StandardCharsets.UTF_8));
+            return;
+        }
+        
+        if (pending.contains(client)) {
+            if (message.typeIs("RESUME")) {
+                resumeSession(client, message);
+                return;
+            }
+            boolean resync = message.typeIs("RESYNC");
+            join(client);
+            if (resync) {
+                return; // The join snapshot is the one it asked for
+            }
+        }
+        
+        if (message.typeIs("ASSIGN")) {
+            // Client requesting alliance assignment and/or a wire format
+            String alliance = message.getString("alliance");
+            if (alliance != null) {
+                client.setAssignedAlliance(alliance);
+                System.out.println("Client assigned to " + alliance + " alliance");
+            }
+            String device = message.getString("device");
+            if (device != null) {
+                linkStats(client).device = device;
+            }
+            if (message.stringEquals("codec", BinaryScoreCodec.NAME)) {
+                switchToBinary(client);
+            }
+        } else if (message.typeIs("PONG")) {
+            onPong(client, message);
+        } else if (message.typeIs("SCORE_OP") && client.getAssignedAlliance() != null) {
+            // Per-field operation that merges with other scorers
+            applyScoreOp(client, message);
+        } else if (message.typeIs("SCORE_UPDATE") && client.getAssignedAlliance() != null) {
+            // Client sending score update for their alliance
+            if (!linkStats(client).acceptUpdate(message.getLong("cseq", -1))) {
+                staleUpdates.incrementAndGet();
+                return;
+            }
+            applyScoreUpdate(data, offset, length, client.getAssignedAlliance());
+        } else if (message.typeIs("RESYNC")) {
+            // Client missed a delta - send a fresh snapshot
+            sendSnapshot(client);
+        }
+    }
+    
+    /**
+     * Start sending broadcasts to a pending client, beginning with a snapshot.
+     * Holding the lock keeps a concurrent broadcast from slipping in between the
+     * snapshot and the client joining the list.
+     */
+    private synchronized void join(Connection client) {
+        if (!pending.remove(client)) {
+            return; // Already joined, resumed or gone
+        }
+        client.send(sessionMessage());
+        sendSnapshot(client);
+        clients.add(client);
+    }
+    
+    /**
+     * Rejoin a client where it left off, replaying the deltas it missed if they are
+     * still in the history ring, otherwise sending a snapshot
+     */
+    private synchronized void resumeSession(Connection client, JsonParser.MessageView message) {
+        if (!pending.remove(client)) {
+            return;
+        }
+        flushBroadcast();
+        
+        long from = message.getLong("seq", -1);
+        boolean replayable = message.stringEquals("session", sessionId)
+            && from >= 1 && from <= sequence && sequence - from <= REPLAY_HISTORY;
+        
+        if (!replayable) {
+            System.out.println("Client " + client.getRemoteAddress() + " cannot resume from seq " + from + ", sending snapshot");
+            client.send(sessionMessage());
+            sendSnapshot(client);
+        } else {
+            for (long seq = from + 1; seq <= sequence; seq++) {
+                int[] previousRed = historyRed[(int) ((seq - 1) % historyRed.length)];
+                int[] previousBlue = historyBlue[(int) ((seq - 1) % historyBlue.length)];
+                int[] red = historyRed[(int) (seq % historyRed.length)];
+                int[] blue = historyBlue[(int) (seq % historyBlue.length)];
+                client.send(buildDeltaMessage(seq, red, blue, previousRed, previousBlue));
+            }
+            resumedSessions.incrementAndGet();
+            System.out.println("Client " + client.getRemoteAddress() + " resumed from seq " + from +
+                               " (" + (sequence - from) + " deltas replayed)");
+        }
+        clients.add(client);
+    }
+    
+    private String sessionMessage() {
+        return "{\"type\":\"SESSION\",\"session\":\"" + sessionId + "\"}";
+    }
+    
+    /**
+     * Number of reconnecting clients brought up to date by replaying deltas
+     */
+    public long getResumedSessions() {
+        return resumedSessions.get();
+    }
+    
+    /**
+     * Full snapshot of both alliances at the current sequence number, in the client's format
+     */
+    private synchronized void sendSnapshot(Connection client) {
+        // Bring existing clients up to date first so the snapshot matches the sequence number
+        flushBroadcast();
+        ByteBuffer snapshot = client.usesBinaryFrames()
+            ? BinaryScoreCodec.encodeSnapshot(sequence, lastRed, lastBlue)
+            : buildScoreMessage(lastRed, lastBlue);
+        if (!client.send(snapshot)) {
+            client.replaceQueued(snapshot);
+        }
+    }
+    
+    /**
+     * Acknowledge the binary codec and switch the client over. Done under the broadcast
+     * lock so the ack is queued before the first binary frame.
+     */
+    private synchronized void switchToBinary(Connection client) {
+        if (client.usesBinaryFrames()) return;
+        client.send("{\"type\":\"ASSIGN_ACK\",\"codec\":\"" + BinaryScoreCodec.NAME + "\"}");
+        client.setBinaryFrames(true);
+        System.out.println("Client " + client.getRemoteAddress() + " switched to binary frames");
+    }
+    
+    void onClientDisconnected(Connection client) {
+        pending.remove(client);
+        LinkStats link = links.remove(client);
+        if (link != null) {
+            link.forgetReplicas(merger);
+        }
+        if (clients.remove(client)) {
+            System.out.println("Client disconnected");
+        }
+    }
+    
+    private LinkStats linkStats(Connection client) {
+        return links.computeIfAbsent(client, c -> new LinkStats());
+    }
+    
+    /**
+     * Ping every joined client. A ping still unanswered from last time counts as a
+     * round trip of at least that long, so a stalled client shows up as degraded.
+     */
+    private void pingClients() {
+        for (Connection client : clients) {
+            LinkStats link = linkStats(client);
+            long id;
+            synchronized (link) {
+                if (link.pingSentNanos != 0) {
+                    link.record(client, System.nanoTime() - link.pingSentNanos);
                 }
-                
-                // Broadcast to all clients
-                broadcastScores();
+                id = ++link.pingId;
+                link.pingSentNanos = System.nanoTime();
+                link.pingSentMillis = System.currentTimeMillis();
+            }
+            client.send("{\"type\":\"PING\",\"id\":" + id + "}");
+        }
+    }
+    
+    private void onPong(Connection client, JsonParser.MessageView message) {
+        long receivedNanos = System.nanoTime();
+        LinkStats link = links.get(client);
+        if (link == null) return;
+        
+        long clientReceived = message.getLong("t1", 0);
+        long clientSent = message.getLong("t2", 0);
+        long id = message.getLong("id", -1);
+        synchronized (link) {
+            if (link.pingSentNanos == 0 || id != link.pingId) {
+                return; // Answer to a ping already counted as timed out
+            }
+            // Time the client spent between receiving and answering is not network time
+            long rttNanos = Math.max(0, receivedNanos - link.pingSentNanos - (clientSent - clientReceived) * 1_000_000L);
+            long serverReceivedMillis = link.pingSentMillis + (receivedNanos - link.pingSentNanos) / 1_000_000L;
+            double offset = ((clientReceived - link.pingSentMillis) + (clientSent - serverReceivedMillis)) / 2.0;
+            link.pingSentNanos = 0;
+            link.record(client, rttNanos);
+            link.recordOffset(rttNanos, offset);
+        }
+    }
+    
+    /**
+     * Latency and clock offset of every joined client
+     */
+    public List<ClientStatus> getClientStatuses() {
+        List<ClientStatus> statuses = new ArrayList<>();
+        for (Connection client : clients) {
+            LinkStats link = links.get(client);
+            if (link == null) {
+                statuses.add(new ClientStatus(client.getRemoteAddress(), null, client.getAssignedAlliance(), 0, 0, 0, 0, false));
+                continue;
+            }
+            synchronized (link) {
+                statuses.add(new ClientStatus(client.getRemoteAddress(), link.device, client.getAssignedAlliance(),
+                    link.rtt.percentileMicros(50) / 1000.0, link.rtt.percentileMicros(99) / 1000.0,
+                    link.offsetMillis, link.rtt.size(), link.degraded));
             }
-        } catch (Exception e) {
-            System.err.println("Error parsing score update: " + e.getMessage());
         }
+        return statuses;
     }
     
     /**
-     * Handler for each connected client
+     * Number of joined clients currently marked degraded
      */
-    private class ClientHandler implements Runnable {
+    public int getDegradedClientCount() {
+        int count = 0;
+        for (LinkStats link : links.values()) {
+            if (link.degraded) count++;
+        }
+        return count;
+    }
+    
+    /**
+     * Ping state and measurements for one connection
+     */
+    private static final class LinkStats {
+        private static final int OFFSET_FILTER = 8;
+        
+        final LatencyHistogram rtt = new LatencyHistogram(LATENCY_WINDOW);
+        volatile String device;
+        volatile boolean degraded;
+        long pingId;
+        long pingSentNanos;     // 0 when no ping is outstanding
+        long pingSentMillis;
+        double offsetMillis;
+        
+        // Last replica id this client sent, reused while the bytes match (reader thread only)
+        private String replica;
+        
+        // Every replica id this connection has used, pruned from the merger when it closes
+        private final Set<String> replicas = ConcurrentHashMap.newKeySet();
+        
+        // Highest SCORE_UPDATE cseq applied from this connection (reader thread only)
+        private long lastUpdateSeq = -1;
+        
+        // Recent (rtt, offset) pairs; the offset from the fastest round trip is the most accurate
+        private final long[] offsetRtts = new long[OFFSET_FILTER];
+        private final double[] offsets = new double[OFFSET_FILTER];
+        private int offsetCount = 0;
+        
+        /**
+         * Device named in a score operation, reusing the ASSIGN name instead of decoding it again
+         */
+        String device(JsonParser.MessageView message) {
+            String known = device;
+            if (known != null && message.stringEquals("device", known)) {
+                return known;
+            }
+            String named = message.getString("device");
+            if (named != null) {
+                device = named;
+            }
+            return named;
+        }
+        
+        /**
+         * Replica of a counter operation (the device if none is given), decoded only when it changes
+         */
+        String replica(JsonParser.MessageView message, String device) {
+            if (!message.has("replica")) {
+                return device;
+            }
+            if (replica == null || !message.stringEquals("replica", replica)) {
+                replica = message.getString("replica");
+                if (replica != null) {
+                    replicas.add(replica);
+                }
+            }
+            return replica;
+        }
+        
+        void forgetReplicas(ScoreMerger merger) {
+            for (String id : replicas) {
+                merger.removeReplica(id);
+            }
+            replicas.clear();
+        }
+        
+        /**
+         * Check a SCORE_UPDATE's client sequence number; updates without one are always applied
+         * @return false if the update is older than one already applied
+         */
+        boolean acceptUpdate(long cseq) {
+            if (cseq < 0) {
+                return true;
+            }
+            if (cseq <= lastUpdateSeq) {
+                return false;
+            }
+            lastUpdateSeq = cseq;
+            return true;
+        }
+        
+        void record(Connection client, long rttNanos) {
+            rtt.recordMicros(rttNanos / 1000);
+            boolean slow = rtt.percentileMicros(99) > DEGRADED_RTT_MS * 1000;
+            if (slow != degraded) {
+                degraded = slow;
+                System.err.println("Client " + (device != null ? device : client.getRemoteAddress()) +
+                                   (slow ? " degraded" : " recovered") + " (p99 " + rtt.percentileMicros(99) / 1000 + " ms)");
+            }
+        }
+        
+        void recordOffset(long rttNanos, double offset) {
+            int slot = offsetCount++ % OFFSET_FILTER;
+            offsetRtts[slot] = rttNanos;
+            offsets[slot] = offset;
+            int best = 0;
+            for (int i = 1; i < Math.min(offsetCount, OFFSET_FILTER); i++) {
+                if (offsetRtts[i] < offsetRtts[best]) best = i;
+            }
+            offsetMillis = offsets[best];
+        }
+    }
+    
+    /**
+     * Link quality of one client as seen by the server
+     */
+    public static final class ClientStatus {
+        private final String address;
+        private final String device;
+        private final String alliance;
+        private final double p50Millis;
+        private final double p99Millis;
+        private final double clockOffsetMillis;
+        private final int samples;
+        private final boolean degraded;
+        
+        ClientStatus(String address, String device, String alliance, double p50Millis, double p99Millis,
+                     double clockOffsetMillis, int samples, boolean degraded) {
+            this.address = address;
+            this.device = device;
+            this.alliance = alliance;
+            this.p50Millis = p50Millis;
+            this.p99Millis = p99Millis;
+            this.clockOffsetMillis = clockOffsetMillis;
+            this.samples = samples;
+            this.degraded = degraded;
+        }
+        
+        public String getAddress() { return address; }
+        
+        /**
+         * Name from the client's ASSIGN message, or null if it sent none
+         */
+        public String getDevice() { return device; }
+        public String getAlliance() { return alliance; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP99Millis() { return p99Millis; }
+        
+        /**
+         * How far the client's clock is ahead of the server's (negative if behind)
+         */
+        public double getClockOffsetMillis() { return clockOffsetMillis; }
+        
+        /**
+         * Round trips in the percentile window
+         */
+        public int getSamples() { return samples; }
+        public boolean isDegraded() { return degraded; }
+    }
+    
+    /**
+     * How client sockets are served
+     */
+    public enum TransportMode {
+        EVENT_LOOP,        // Single selector thread for all clients
+        THREAD_PER_CLIENT  // Legacy blocking socket per client
+    }
+    
+    /**
+     * A connected remote device, independent of the transport serving it
+     */
+    interface Connection {
+        /**
+         * Queue an encoded frame. The buffer may be shared with other connections
+         * and must not be modified or have its position moved.
+         * @return false if the client's queue is full and the frame was dropped
+         */
+        boolean send(ByteBuffer frame);
+        
+        default boolean send(String message) {
+            return send(encodeFrame(message));
+        }
+        
+        /**
+         * Discard queued frames and queue a snapshot instead (latest state wins)
+         */
+        void replaceQueued(ByteBuffer snapshot);
+        
+        int getQueueDepth();
+        
+        /**
+         * How long the client has been unable to keep up, 0 if it is keeping up
+         */
+        long getLaggingMillis();
+        
+        String getAssignedAlliance(); // "RED" or "BLUE"
+        void setAssignedAlliance(String alliance);
+        
+        /**
+         * Whether score frames go out in BinaryScoreCodec format instead of JSON
+         */
+        boolean usesBinaryFrames();
+        void setBinaryFrames(boolean binary);
+        
+        String getRemoteAddress();
+        void close();
+    }
+    
+    /**
+     * Blocking handler for each connected client (THREAD_PER_CLIENT transport)
+     */
+    private class ClientHandler implements Runnable, Connection {
         private final Socket socket;
-        private PrintWriter out;
-        private BufferedReader in;
-        private String assignedAlliance = null; // "RED" or "BLUE"
+        private OutputStream out;
+        private InputStream in;
+        private final SendQueue writeQueue = new SendQueue(MAX_QUEUED_FRAMES);
+        private final byte[] writeChunk = new byte[4096];
+        private volatile String assignedAlliance = null; // "RED" or "BLUE"
+        private volatile boolean binaryFrames = false;
         private volatile boolean connected = true;
+        private boolean closed = false;
         
         ClientHandler(Socket socket) {
             this.socket = socket;
             try {
-                out = new PrintWriter(socket.getOutputStream(), true);
-                in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                out = socket.getOutputStream();
+                in = socket.getInputStream();
             } catch (IOException e) {
                 connected = false;
             }
@@ -268,49 +1139,122 @@ public class SyncServer {
         
         @Override
         public void run() {
+            executor.submit(this::writeLoop);
+            byte[] buffer = new byte[4096];
+            int filled = 0;
             try {
-                // Send current state on connect
-                send(buildScoreMessage());
-                
-                String line;
-                while (connected && (line = in.readLine()) != null) {
-                    processMessage(line);
+                int n;
+                while (connected && (n = in.read(buffer, filled, buffer.length - filled)) >= 0) {
+                    // Dispatch every complete line straight from the buffer; the
+                    // unterminated remainder has no newline, so only new bytes are scanned
+                    int lineStart = 0;
+                    for (int i = filled; i < filled + n; i++) {
+                        if (buffer[i] == '\n') {
+                            int end = i > lineStart && buffer[i - 1] == '\r' ? i - 1 : i;
+                            onClientMessage(this, buffer, lineStart, end - lineStart);
+                            lineStart = i + 1;
+                        }
+                    }
+                    filled += n - lineStart;
+                    System.arraycopy(buffer, lineStart, buffer, 0, filled);
+                    
+                    if (filled == buffer.length) {
+                        if (buffer.length >= SyncEventLoop.MAX_LINE_LENGTH) {
+                            System.err.println("Client " + getRemoteAddress() + " exceeded max message length");
+                            break;
+                        }
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
                 }
             } catch (IOException e) {
                 // Client disconnected
             } finally {
                 close();
-                clients.remove(this);
-                System.out.println("Client disconnected");
             }
         }
         
-        private void processMessage(String message) {
-            if (message.contains("\"type\":\"ASSIGN\"")) {
-                // Client requesting alliance assignment
-                assignedAlliance = JsonParser.parseStringField(message, "alliance");
-                System.out.println("Client assigned to " + assignedAlliance + " alliance");
-            } else if (message.contains("\"type\":\"SCORE_UPDATE\"") && assignedAlliance != null) {
-                // Client sending score update for their alliance
-                applyScoreUpdate(message, assignedAlliance);
+        /**
+         * Writer thread: drains the queue so a stalled socket never blocks a broadcast
+         */
+        private void writeLoop() {
+            try {
+                ByteBuffer frame;
+                while ((frame = writeQueue.take()) != null) {
+                    while (frame.hasRemaining()) {
+                        int n = Math.min(frame.remaining(), writeChunk.length);
+                        frame.get(writeChunk, 0, n);
+                        out.write(writeChunk, 0, n);
+                    }
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                close();
             }
         }
         
-        void send(String message) {
-            if (connected && out != null) {
-                out.println(message);
-            }
+        @Override
+        public boolean send(ByteBuffer frame) {
+            if (!connected || out == null) return true;
+            return writeQueue.offer(frame.duplicate());
+        }
+        
+        @Override
+        public void replaceQueued(ByteBuffer snapshot) {
+            writeQueue.replaceWith(snapshot.duplicate());
         }
         
-        void close() {
+        @Override
+        public int getQueueDepth() {
+            return writeQueue.size();
+        }
+        
+        @Override
+        public long getLaggingMillis() {
+            return writeQueue.getLaggingMillis();
+        }
+        
+        @Override
+        public String getAssignedAlliance() {
+            return assignedAlliance;
+        }
+        
+        @Override
+        public void setAssignedAlliance(String alliance) {
+            this.assignedAlliance = alliance;
+        }
+        
+        @Override
+        public boolean usesBinaryFrames() {
+            return binaryFrames;
+        }
+        
+        @Override
+        public void setBinaryFrames(boolean binary) {
+            this.binaryFrames = binary;
+        }
+        
+        @Override
+        public String getRemoteAddress() {
+            return String.valueOf(socket.getInetAddress());
+        }
+        
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
             connected = false;
+            writeQueue.close();
             try {
+                // Socket first: closing the reader while readLine() holds its lock would block
+                if (socket != null) socket.close();
                 if (in != null) in.close();
                 if (out != null) out.close();
-                if (socket != null) socket.close();
             } catch (IOException e) {
                 // Ignore
             }
+            onClientDisconnected(this);
         }
     }
 }
@@ -9,6 +9,7 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import org.ftc.scorer.model.DecodeScore;
 import org.ftc.scorer.model.Match;
+import org.ftc.scorer.model.ScoreSnapshot;
 import org.ftc.scorer.service.CloudSyncService;
 import org.ftc.scorer.service.MatchTimer;
 import org.ftc.scorer.service.SyncServer;
@@ -62,6 +63,8 @@ public class ControlWindow {
     // Sync server controls
     private Button syncServerButton;
     private Label syncStatusLabel;
+    private Label syncStatsLabel;
+    private javafx.animation.Timeline syncStatsTimeline;
     
     // Cloud sync controls
     private Button createEventButton;
@@ -79,6 +82,8 @@ public class ControlWindow {
         this.audioService = audioService;
         this.syncServer = new SyncServer(match);
         this.cloudSyncService = new CloudSyncService(match);
+        syncServer.setNotificationExecutor(FxNotifications.coalescing());
+        cloudSyncService.setNotificationExecutor(FxNotifications.coalescing());
         this.stage = new Stage();
         
         initializeUI();
@@ -90,6 +95,7 @@ public class ControlWindow {
         // Set up cloud sync callbacks
         cloudSyncService.setOnScoreUpdate(this::refreshControlsFromModel);
         cloudSyncService.setOnConnectionChange(this::updateCloudSyncUI);
+        cloudSyncService.setOnDeviceListUpdate(this::updateCloudSyncUI);
     }
     
     private void initializeUI() {
@@ -207,8 +213,11 @@ public class ControlWindow {
         motifSelector.setValue(DecodeScore.MotifType.PPG);
         motifSelector.setStyle("-fx-font-size: 13;");
         motifSelector.setOnAction(e -> {
-            match.getRedScore().setMotif(motifSelector.getValue());
-            match.getBlueScore().setMotif(motifSelector.getValue());
+            DecodeScore.MotifType motif = motifSelector.getValue();
+            match.update(m -> {
+                m.getRedScore().setMotif(motif);
+                m.getBlueScore().setMotif(motif);
+            });
         });
         
         Button randomizeMotifButton = new Button("🎲 Randomize");
@@ -216,8 +225,10 @@ public class ControlWindow {
         randomizeMotifButton.setOnAction(e -> {
             DecodeScore.MotifType randomMotif = DecodeScore.MotifType.randomize();
             motifSelector.setValue(randomMotif);
-            match.getRedScore().setMotif(randomMotif);
-            match.getBlueScore().setMotif(randomMotif);
+            match.update(m -> {
+                m.getRedScore().setMotif(randomMotif);
+                m.getBlueScore().setMotif(randomMotif);
+            });
             // Highlight motif in stream output
             streamWindow.highlightMotif();
         });
@@ -249,9 +260,12 @@ public class ControlWindow {
         syncStatusLabel = new Label("Server: Off");
         syncStatusLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #666;");
         
+        syncStatsLabel = new Label("");
+        syncStatsLabel.setStyle("-fx-font-size: 10; -fx-text-fill: #666;");
+        
         VBox syncBox = new VBox(3);
         syncBox.setAlignment(Pos.CENTER);
-        syncBox.getChildren().addAll(syncServerButton, syncStatusLabel);
+        syncBox.getChildren().addAll(syncServerButton, syncStatusLabel, syncStatsLabel);
         
         // Cloud sync controls (Scrimmage/Event)
         createEventButton = new Button("☁ Create Event");
@@ -590,117 +604,117 @@ public class ControlWindow {
         
         // Red Alliance bindings
         redRobot1Leave.selectedProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setRobot1Leave(newVal);
+            match.update(m -> m.getRedScore().setRobot1Leave(newVal));
             updateScoreDisplays();
         });
         redRobot2Leave.selectedProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setRobot2Leave(newVal);
+            match.update(m -> m.getRedScore().setRobot2Leave(newVal));
             updateScoreDisplays();
         });
         
         redAutoClassified.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setAutoClassified(newVal);
+            match.update(m -> m.getRedScore().setAutoClassified(newVal));
             updateScoreDisplays();
         });
         redAutoOverflow.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setAutoOverflow(newVal);
+            match.update(m -> m.getRedScore().setAutoOverflow(newVal));
             updateScoreDisplays();
         });
         redAutoPattern.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setAutoPatternMatches(newVal);
+            match.update(m -> m.getRedScore().setAutoPatternMatches(newVal));
             updateScoreDisplays();
         });
         
         redTeleopClassified.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setTeleopClassified(newVal);
+            match.update(m -> m.getRedScore().setTeleopClassified(newVal));
             updateScoreDisplays();
         });
         redTeleopOverflow.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setTeleopOverflow(newVal);
+            match.update(m -> m.getRedScore().setTeleopOverflow(newVal));
             updateScoreDisplays();
         });
         redTeleopDepot.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setTeleopDepot(newVal);
+            match.update(m -> m.getRedScore().setTeleopDepot(newVal));
             updateScoreDisplays();
         });
         redTeleopPattern.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setTeleopPatternMatches(newVal);
+            match.update(m -> m.getRedScore().setTeleopPatternMatches(newVal));
             updateScoreDisplays();
         });
         
         redRobot1Base.setOnAction(e -> {
-            match.getRedScore().setRobot1Base(redRobot1Base.getValue());
+            match.update(m -> m.getRedScore().setRobot1Base(redRobot1Base.getValue()));
             updateScoreDisplays();
         });
         redRobot2Base.setOnAction(e -> {
-            match.getRedScore().setRobot2Base(redRobot2Base.getValue());
+            match.update(m -> m.getRedScore().setRobot2Base(redRobot2Base.getValue()));
             updateScoreDisplays();
         });
         
         redMajorFouls.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setMajorFouls(newVal);
+            match.update(m -> m.getRedScore().setMajorFouls(newVal));
             updateScoreDisplays();
         });
         redMinorFouls.valueProperty().addListener((obs, old, newVal) -> {
-            match.getRedScore().setMinorFouls(newVal);
+            match.update(m -> m.getRedScore().setMinorFouls(newVal));
             updateScoreDisplays();
         });
         
         // Blue Alliance bindings (mirrored)
         blueRobot1Leave.selectedProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setRobot1Leave(newVal);
+            match.update(m -> m.getBlueScore().setRobot1Leave(newVal));
             updateScoreDisplays();
         });
         blueRobot2Leave.selectedProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setRobot2Leave(newVal);
+            match.update(m -> m.getBlueScore().setRobot2Leave(newVal));
             updateScoreDisplays();
         });
         
         blueAutoClassified.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setAutoClassified(newVal);
+            match.update(m -> m.getBlueScore().setAutoClassified(newVal));
             updateScoreDisplays();
         });
         blueAutoOverflow.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setAutoOverflow(newVal);
+            match.update(m -> m.getBlueScore().setAutoOverflow(newVal));
             updateScoreDisplays();
         });
         blueAutoPattern.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setAutoPatternMatches(newVal);
+            match.update(m -> m.getBlueScore().setAutoPatternMatches(newVal));
             updateScoreDisplays();
         });
         
         blueTeleopClassified.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setTeleopClassified(newVal);
+            match.update(m -> m.getBlueScore().setTeleopClassified(newVal));
             updateScoreDisplays();
         });
         blueTeleopOverflow.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setTeleopOverflow(newVal);
+            match.update(m -> m.getBlueScore().setTeleopOverflow(newVal));
             updateScoreDisplays();
         });
         blueTeleopDepot.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setTeleopDepot(newVal);
+            match.update(m -> m.getBlueScore().setTeleopDepot(newVal));
             updateScoreDisplays();
         });
         blueTeleopPattern.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setTeleopPatternMatches(newVal);
+            match.update(m -> m.getBlueScore().setTeleopPatternMatches(newVal));
             updateScoreDisplays();
         });
         
         blueRobot1Base.setOnAction(e -> {
-            match.getBlueScore().setRobot1Base(blueRobot1Base.getValue());
+            match.update(m -> m.getBlueScore().setRobot1Base(blueRobot1Base.getValue()));
             updateScoreDisplays();
         });
         blueRobot2Base.setOnAction(e -> {
-            match.getBlueScore().setRobot2Base(blueRobot2Base.getValue());
+            match.update(m -> m.getBlueScore().setRobot2Base(blueRobot2Base.getValue()));
             updateScoreDisplays();
         });
         
         blueMajorFouls.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setMajorFouls(newVal);
+            match.update(m -> m.getBlueScore().setMajorFouls(newVal));
             updateScoreDisplays();
         });
         blueMinorFouls.valueProperty().addListener((obs, old, newVal) -> {
-            match.getBlueScore().setMinorFouls(newVal);
+            match.update(m -> m.getBlueScore().setMinorFouls(newVal));
             updateScoreDisplays();
         });
     }
@@ -893,15 +907,16 @@ public class ControlWindow {
         alert.setHeaderText("Final Score Breakdown");
         
         StringBuilder breakdown = new StringBuilder();
+        ScoreSnapshot snapshot = match.getSnapshot(); // One consistent view for the whole dialog
         
         // Match info
         String redTeam = match.getRedTeamNumber().isEmpty() ? "----" : match.getRedTeamNumber();
         String blueTeam = match.getBlueTeamNumber().isEmpty() ? "----" : match.getBlueTeamNumber();
-        breakdown.append("MOTIF: ").append(match.getRedScore().getMotif().getDisplayName()).append("\n\n");
+        breakdown.append("MOTIF: ").append(snapshot.getRed().getMotif().getDisplayName()).append("\n\n");
         
         // RED ALLIANCE
         breakdown.append("═══ RED ALLIANCE (Team ").append(redTeam).append(") ═══\n\n");
-        DecodeScore redScore = match.getRedScore();
+        ScoreSnapshot.AllianceScore redScore = snapshot.getRed();
         
         breakdown.append("AUTONOMOUS:\n");
         breakdown.append("  LEAVE: ");
@@ -932,13 +947,13 @@ public class ControlWindow {
         breakdown.append("  Movement Points: ").append(redScore.getMovementPoints()).append(" pts\n\n");
         
         breakdown.append("PENALTIES (from Blue):\n");
-        DecodeScore blueScore = match.getBlueScore();
+        ScoreSnapshot.AllianceScore blueScore = snapshot.getBlue();
         breakdown.append("  Major Fouls: ").append(blueScore.getMajorFouls()).append(" × 15 = ")
                   .append(blueScore.getMajorFouls() * 15).append(" pts\n");
         breakdown.append("  Minor Fouls: ").append(blueScore.getMinorFouls()).append(" × 5 = ")
                   .append(blueScore.getMinorFouls() * 5).append(" pts\n\n");
         
-        breakdown.append("RED TOTAL: ").append(match.getRedTotalScore()).append(" points\n\n");
+        breakdown.append("RED TOTAL: ").append(snapshot.getRedTotal()).append(" points\n\n");
         
         // BLUE ALLIANCE
         breakdown.append("═══ BLUE ALLIANCE (Team ").append(blueTeam).append(") ═══\n\n");
@@ -977,12 +992,12 @@ public class ControlWindow {
         breakdown.append("  Minor Fouls: ").append(redScore.getMinorFouls()).append(" × 5 = ")
                   .append(redScore.getMinorFouls() * 5).append(" pts\n\n");
         
-        breakdown.append("BLUE TOTAL: ").append(match.getBlueTotalScore()).append(" points\n\n");
+        breakdown.append("BLUE TOTAL: ").append(snapshot.getBlueTotal()).append(" points\n\n");
         
         // WINNER
         breakdown.append("═══════════════════════════\n");
-        int redTotal = match.getRedTotalScore();
-        int blueTotal = match.getBlueTotalScore();
+        int redTotal = snapshot.getRedTotal();
+        int blueTotal = snapshot.getBlueTotal();
         if (redTotal > blueTotal) {
             breakdown.append("🏆 RED ALLIANCE WINS! 🏆\n");
         } else if (blueTotal > redTotal) {
@@ -1147,6 +1162,10 @@ public class ControlWindow {
             syncServerButton.setStyle("-fx-background-color: #2196F3; -fx-text-fill: white; -fx-font-weight: bold; -fx-padding: 5 15;");
             syncStatusLabel.setText("Server: Off");
             syncStatusLabel.setStyle("-fx-font-size: 12; -fx-text-fill: #666;");
+            if (syncStatsTimeline != null) {
+                syncStatsTimeline.stop();
+            }
+            syncStatsLabel.setText("");
         } else {
             if (syncServer.start()) {
                 syncServerButton.setText("Stop Sync Server");
@@ -1155,6 +1174,16 @@ public class ControlWindow {
                 syncStatusLabel.setText("Connect: " + address);
                 syncStatusLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #4CAF50; -fx-font-weight: bold;");
                 
+                // Refresh connection health once per second
+                if (syncStatsTimeline == null) {
+                    syncStatsTimeline = new javafx.animation.Timeline(
+                        new javafx.animation.KeyFrame(javafx.util.Duration.seconds(1), e -> updateSyncStats())
+                    );
+                    syncStatsTimeline.setCycleCount(javafx.animation.Timeline.INDEFINITE);
+                }
+                updateSyncStats();
+                syncStatsTimeline.play();
+                
                 // Show connection info dialog
                 Alert info = new Alert(Alert.AlertType.INFORMATION);
                 info.setTitle("Sync Server Started");
@@ -1181,40 +1210,79 @@ public class ControlWindow {
         }
     }
     
+    /**
+     * Show client count, outbound queue health and per-device latency under the sync server button
+     */
+    private void updateSyncStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Clients: ").append(syncServer.getClientCount())
+          .append(" | Queue max: ").append(syncServer.getMaxQueueDepth())
+          .append(" | Resets: ").append(syncServer.getQueueResets())
+          .append(" | Evicted: ").append(syncServer.getEvictedClients())
+          .append(" | Stale: ").append(syncServer.getStaleUpdates());
+        
+        boolean degraded = false;
+        for (SyncServer.ClientStatus client : syncServer.getClientStatuses()) {
+            sb.append("\n").append(client.getDevice() != null ? client.getDevice() : client.getAddress());
+            if (client.getAlliance() != null) {
+                sb.append(" (").append(client.getAlliance()).append(")");
+            }
+            if (client.getSamples() == 0) {
+                sb.append(": measuring...");
+            } else {
+                sb.append(String.format(": p50 %.1f ms, p99 %.1f ms, clock %+.0f ms",
+                    client.getP50Millis(), client.getP99Millis(), client.getClockOffsetMillis()));
+            }
+            if (client.isDegraded()) {
+                sb.append(" - DEGRADED");
+                degraded = true;
+            }
+        }
+        
+        syncStatsLabel.setText(sb.toString());
+        syncStatsLabel.setStyle(degraded
+            ? "-fx-font-size: 10; -fx-text-fill: #f44336;"
+            : "-fx-font-size: 10; -fx-text-fill: #666;");
+    }
+    
     /**
      * Refresh all control values from the model
      * Called when scores are updated by remote devices
      */
     private void refreshControlsFromModel() {
+        ScoreSnapshot snapshot = match.getSnapshot();
+        ScoreSnapshot.AllianceScore red = snapshot.getRed();
+        ScoreSnapshot.AllianceScore blue = snapshot.getBlue();
+        
         // Red Alliance
-        redRobot1Leave.setSelected(match.getRedScore().isRobot1Leave());
-        redRobot2Leave.setSelected(match.getRedScore().isRobot2Leave());
-        redAutoClassified.getValueFactory().setValue(match.getRedScore().getAutoClassified());
-        redAutoOverflow.getValueFactory().setValue(match.getRedScore().getAutoOverflow());
-        redAutoPattern.getValueFactory().setValue(match.getRedScore().getAutoPatternMatches());
-        redTeleopClassified.getValueFactory().setValue(match.getRedScore().getTeleopClassified());
-        redTeleopOverflow.getValueFactory().setValue(match.getRedScore().getTeleopOverflow());
-        redTeleopDepot.getValueFactory().setValue(match.getRedScore().getTeleopDepot());
-        redTeleopPattern.getValueFactory().setValue(match.getRedScore().getTeleopPatternMatches());
-        redRobot1Base.setValue(match.getRedScore().getRobot1Base());
-        redRobot2Base.setValue(match.getRedScore().getRobot2Base());
-        redMajorFouls.getValueFactory().setValue(match.getRedScore().getMajorFouls());
-        redMinorFouls.getValueFactory().setValue(match.getRedScore().getMinorFouls());
+        redRobot1Leave.setSelected(red.isRobot1Leave());
+        redRobot2Leave.setSelected(red.isRobot2Leave());
+        redAutoClassified.getValueFactory().setValue(red.getAutoClassified());
+        redAutoOverflow.getValueFactory().setValue(red.getAutoOverflow());
+        redAutoPattern.getValueFactory().setValue(red.getAutoPatternMatches());
+        redTeleopClassified.getValueFactory().setValue(red.getTeleopClassified());
+        redTeleopOverflow.getValueFactory().setValue(red.getTeleopOverflow());
+        redTeleopDepot.getValueFactory().setValue(red.getTeleopDepot());
+        redTeleopPattern.getValueFactory().setValue(red.getTeleopPatternMatches());
+        redRobot1Base.setValue(red.getRobot1Base());
+        redRobot2Base.setValue(red.getRobot2Base());
+        redMajorFouls.getValueFactory().setValue(red.getMajorFouls());
+        redMinorFouls.getValueFactory().setValue(red.getMinorFouls());
         
         // Blue Alliance
-        blueRobot1Leave.setSelected(match.getBlueScore().isRobot1Leave());
-        blueRobot2Leave.setSelected(match.getBlueScore().isRobot2Leave());
-        blueAutoClassified.getValueFactory().setValue(match.getBlueScore().getAutoClassified());
-        blueAutoOverflow.getValueFactory().setValue(match.getBlueScore().getAutoOverflow());
-        blueAutoPattern.getValueFactory().setValue(match.getBlueScore().getAutoPatternMatches());
-        blueTeleopClassified.getValueFactory().setValue(match.getBlueScore().getTeleopClassified());
-        blueTeleopOverflow.getValueFactory().setValue(match.getBlueScore().getTeleopOverflow());
-        blueTeleopDepot.getValueFactory().setValue(match.getBlueScore().getTeleopDepot());
-        blueTeleopPattern.getValueFactory().setValue(match.getBlueScore().getTeleopPatternMatches());
-        blueRobot1Base.setValue(match.getBlueScore().getRobot1Base());
-        blueRobot2Base.setValue(match.getBlueScore().getRobot2Base());
-        blueMajorFouls.getValueFactory().setValue(match.getBlueScore().getMajorFouls());
-        blueMinorFouls.getValueFactory().setValue(match.getBlueScore().getMinorFouls());
+        blueRobot1Leave.setSelected(blue.isRobot1Leave());
+        blueRobot2Leave.setSelected(blue.isRobot2Leave());
+        blueAutoClassified.getValueFactory().setValue(blue.getAutoClassified());
+        blueAutoOverflow.getValueFactory().setValue(blue.getAutoOverflow());
+        blueAutoPattern.getValueFactory().setValue(blue.getAutoPatternMatches());
+        blueTeleopClassified.getValueFactory().setValue(blue.getTeleopClassified());
+        blueTeleopOverflow.getValueFactory().setValue(blue.getTeleopOverflow());
+        blueTeleopDepot.getValueFactory().setValue(blue.getTeleopDepot());
+        blueTeleopPattern.getValueFactory().setValue(blue.getTeleopPatternMatches());
+        blueRobot1Base.setValue(blue.getRobot1Base());
+        blueRobot2Base.setValue(blue.getRobot2Base());
+        blueMajorFouls.getValueFactory().setValue(blue.getMajorFouls());
+        blueMinorFouls.getValueFactory().setValue(blue.getMinorFouls());
         
         // Broadcast updated scores to all connected clients
         if (syncServer.isRunning()) {
@@ -1376,7 +1444,19 @@ public class ControlWindow {
         if (cloudSyncService.isConnected()) {
             String role = cloudSyncService.getDeviceRole();
             String event = cloudSyncService.getEventName();
-            cloudStatusLabel.setText("☁ " + event + " (" + role + ")");
+            String mode = cloudSyncService.isRealtimeLive() ? "live" : "polling";
+            String cadence = cloudSyncService.getConsecutiveFailures() > 0
+                ? "retry in " + formatInterval(cloudSyncService.getEffectiveIntervalMs())
+                : "every " + formatInterval(cloudSyncService.getEffectiveIntervalMs());
+            String scorers = cloudSyncService.isHost()
+                ? " · Red " + cloudSyncService.getConnectedDevices("RED_SCORER") +
+                  " / Blue " + cloudSyncService.getConnectedDevices("BLUE_SCORER")
+                : "";
+            int pending = cloudSyncService.getPendingWrites();
+            String queued = pending > 0
+                ? " · " + pending + " queued (oldest " + formatInterval(cloudSyncService.getOldestPendingAgeMillis()) + ")"
+                : "";
+            cloudStatusLabel.setText("☁ " + event + " (" + role + ") · " + mode + " · " + cadence + scorers + queued);
             cloudStatusLabel.setStyle("-fx-font-size: 11; -fx-text-fill: #4CAF50; -fx-font-weight: bold;");
             
             // Change buttons to show disconnect option
@@ -1400,6 +1480,10 @@ public class ControlWindow {
         }
     }
     
+    private static String formatInterval(long millis) {
+        return millis < 1000 ? millis + " ms" : String.format("%.1f s", millis / 1000.0);
+    }
+    
     /**
      * Helper to show alerts
      */
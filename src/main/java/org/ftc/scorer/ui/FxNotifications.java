@@ -0,0 +1,27 @@
+package org.ftc.scorer.ui;
+
+import javafx.application.Platform;
+import org.ftc.scorer.service.NotificationExecutor;
+
+/**
+ * NotificationExecutors that deliver sync service callbacks on the JavaFX application
+ * thread. Kept out of the service package so the services load without JavaFX; the
+ * windows that create a service hand it one of these.
+ */
+public final class FxNotifications {
+    private FxNotifications() {}
+    
+    /**
+     * Every callback on the JavaFX application thread
+     */
+    public static NotificationExecutor fx() {
+        return new NotificationExecutor(Platform::runLater, false);
+    }
+    
+    /**
+     * JavaFX application thread, at most one pending run per callback
+     */
+    public static NotificationExecutor coalescing() {
+        return new NotificationExecutor(Platform::runLater, true);
+    }
+}
@@ -17,6 +17,7 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import org.ftc.scorer.model.Match;
+import org.ftc.scorer.model.ScoreSnapshot;
 import org.ftc.scorer.service.MatchTimer;
 import org.ftc.scorer.service.VideoService;
 import java.util.Arrays;
@@ -541,9 +542,13 @@ public class StreamOutputWindow {
     }
     
     private void updateScores() {
-        // Use match methods which include opponent penalties
-        redScoreLabel.setText(String.valueOf(match.getRedTotalScore()));
-        blueScoreLabel.setText(String.valueOf(match.getBlueTotalScore()));
+        // Read one published snapshot so totals and breakdown always agree,
+        // even while a sync thread is applying a remote update
+        ScoreSnapshot snapshot = match.getSnapshot();
+        
+        // Totals include opponent penalties
+        redScoreLabel.setText(String.valueOf(snapshot.getRedTotal()));
+        blueScoreLabel.setText(String.valueOf(snapshot.getBlueTotal()));
         
         // Normal time display - no countdown overlay
         timerLabel.setText(matchTimer.getTimeString());
@@ -570,13 +575,13 @@ public class StreamOutputWindow {
         }
         
         // Update motif display in center box
-        String motifText = match.getRedScore().getMotif().name();
+        String motifText = snapshot.getRed().getMotif().name();
         motifLabel.setText(motifText);
         
         // Note: teamNumbersLabel is deprecated and hidden - team numbers are now shown in the bottom bar
         
         // Update detailed breakdown
-        updateDetailedBreakdown();
+        updateDetailedBreakdown(snapshot);
     }
     private String formatTeamsForStack(String display) {
         if (display == null || display.isBlank()) {
@@ -588,18 +593,21 @@ public class StreamOutputWindow {
                 .filter(s -> !s.isEmpty())
                 .collect(Collectors.joining("\n"));
     }
-    private void updateDetailedBreakdown() {
+    private void updateDetailedBreakdown(ScoreSnapshot snapshot) {
+        ScoreSnapshot.AllianceScore red = snapshot.getRed();
+        ScoreSnapshot.AllianceScore blue = snapshot.getBlue();
+        
         // Red Alliance breakdown
-        int redClassified = match.getRedScore().getAutoClassified() + match.getRedScore().getTeleopClassified();
-        int redOverflow = match.getRedScore().getAutoOverflow() + match.getRedScore().getTeleopOverflow();
-        int redPattern = match.getRedScore().getAutoPatternMatches() + match.getRedScore().getTeleopPatternMatches();
-        int redLeave = (match.getRedScore().isRobot1Leave() ? 1 : 0) + (match.getRedScore().isRobot2Leave() ? 1 : 0);
+        int redClassified = red.getAutoClassified() + red.getTeleopClassified();
+        int redOverflow = red.getAutoOverflow() + red.getTeleopOverflow();
+        int redPattern = red.getAutoPatternMatches() + red.getTeleopPatternMatches();
+        int redLeave = (red.isRobot1Leave() ? 1 : 0) + (red.isRobot2Leave() ? 1 : 0);
         
         // Get base points from score model
-        int redBasePts = match.getRedScore().getBasePoints();
+        int redBasePts = red.getBasePoints();
         
         // Opponent fouls give points to this alliance (5 pts minor, 15 pts major)
-        int redFoulPts = match.getBlueScore().getMinorFouls() * 5 + match.getBlueScore().getMajorFouls() * 15;
+        int redFoulPts = blue.getMinorFouls() * 5 + blue.getMajorFouls() * 15;
         
         // Calculate points for each category
         int redClassifiedPts = redClassified * 3;
@@ -620,16 +628,16 @@ public class StreamOutputWindow {
         }
         
         // Blue Alliance breakdown
-        int blueClassified = match.getBlueScore().getAutoClassified() + match.getBlueScore().getTeleopClassified();
-        int blueOverflow = match.getBlueScore().getAutoOverflow() + match.getBlueScore().getTeleopOverflow();
-        int bluePattern = match.getBlueScore().getAutoPatternMatches() + match.getBlueScore().getTeleopPatternMatches();
-        int blueLeave = (match.getBlueScore().isRobot1Leave() ? 1 : 0) + (match.getBlueScore().isRobot2Leave() ? 1 : 0);
+        int blueClassified = blue.getAutoClassified() + blue.getTeleopClassified();
+        int blueOverflow = blue.getAutoOverflow() + blue.getTeleopOverflow();
+        int bluePattern = blue.getAutoPatternMatches() + blue.getTeleopPatternMatches();
+        int blueLeave = (blue.isRobot1Leave() ? 1 : 0) + (blue.isRobot2Leave() ? 1 : 0);
         
         // Get base points from score model
-        int blueBasePts = match.getBlueScore().getBasePoints();
+        int blueBasePts = blue.getBasePoints();
         
         // Opponent fouls give points to this alliance (5 pts minor, 15 pts major)
-        int blueFoulPts = match.getRedScore().getMinorFouls() * 5 + match.getRedScore().getMajorFouls() * 15;
+        int blueFoulPts = red.getMinorFouls() * 5 + red.getMajorFouls() * 15;
         
         // Calculate points for each category
         int blueClassifiedPts = blueClassified * 3;
@@ -775,8 +783,9 @@ public class StreamOutputWindow {
         
         showingBreakdown = true;
         
-        int redTotal = match.getRedTotalScore();
-        int blueTotal = match.getBlueTotalScore();
+        ScoreSnapshot snapshot = match.getSnapshot();
+        int redTotal = snapshot.getRedTotal();
+        int blueTotal = snapshot.getBlueTotal();
         boolean redWins = redTotal > blueTotal;
         boolean isTie = redTotal == blueTotal;
         
@@ -822,6 +831,8 @@ public class StreamOutputWindow {
      * Actually display the breakdown content (after video if played)
      */
     private void showBreakdownContent(boolean redWins, boolean isTie) {
+        ScoreSnapshot snapshot = match.getSnapshot();
+        
         // Create breakdown overlay
         VBox overlay = new VBox(30);
         overlay.setAlignment(Pos.CENTER);
@@ -834,7 +845,7 @@ public class StreamOutputWindow {
         titleLabel.setTextFill(Color.WHITE);
         
         // Match info
-        String motif = match.getRedScore().getMotif().getDisplayName();
+        String motif = snapshot.getRed().getMotif().getDisplayName();
         Label motifLabel = new Label("MOTIF: " + motif);
         motifLabel.setFont(Font.font("Arial", FontWeight.BOLD, 24));
         motifLabel.setTextFill(Color.YELLOW);
@@ -844,13 +855,13 @@ public class StreamOutputWindow {
         scoresBox.setAlignment(Pos.CENTER);
         
         // Create breakdown boxes with winner highlighting
-        VBox redBreakdown = createFullBreakdownBox("RED ALLIANCE", match.getRedScore(), 
-                                                     match.getBlueScore(), match.getRedTeamNumber(),
-                                                     match.getRedTotalScore(), Color.rgb(211, 47, 47),
+        VBox redBreakdown = createFullBreakdownBox("RED ALLIANCE", snapshot.getRed(), 
+                                                     snapshot.getBlue(), match.getRedTeamNumber(),
+                                                     snapshot.getRedTotal(), Color.rgb(211, 47, 47),
                                                      !isTie && redWins);
-        VBox blueBreakdown = createFullBreakdownBox("BLUE ALLIANCE", match.getBlueScore(),
-                                                      match.getRedScore(), match.getBlueTeamNumber(),
-                                                      match.getBlueTotalScore(), Color.rgb(25, 118, 210),
+        VBox blueBreakdown = createFullBreakdownBox("BLUE ALLIANCE", snapshot.getBlue(),
+                                                      snapshot.getRed(), match.getBlueTeamNumber(),
+                                                      snapshot.getBlueTotal(), Color.rgb(25, 118, 210),
                                                       !isTie && !redWins);
         
         scoresBox.getChildren().addAll(redBreakdown, blueBreakdown);
@@ -858,8 +869,8 @@ public class StreamOutputWindow {
         // Winner announcement
         Label winnerLabel = new Label();
         winnerLabel.setFont(Font.font("Arial", FontWeight.BOLD, 36));
-        int redTotal = match.getRedTotalScore();
-        int blueTotal = match.getBlueTotalScore();
+        int redTotal = snapshot.getRedTotal();
+        int blueTotal = snapshot.getBlueTotal();
         if (redTotal > blueTotal) {
             winnerLabel.setText("🏆 RED ALLIANCE WINS! 🏆");
             winnerLabel.setTextFill(Color.rgb(255, 100, 100));
@@ -892,8 +903,8 @@ public class StreamOutputWindow {
         }
     }
     
-    private VBox createFullBreakdownBox(String title, org.ftc.scorer.model.DecodeScore score,
-                                         org.ftc.scorer.model.DecodeScore opponentScore,
+    private VBox createFullBreakdownBox(String title, ScoreSnapshot.AllianceScore score,
+                                         ScoreSnapshot.AllianceScore opponentScore,
                                          String teamNumber, int totalScore, Color color,
                                          boolean isWinner) {
         VBox box = new VBox(10);
@@ -0,0 +1,18 @@
+-- FTC Stream Scorer - Database Migration for Realtime Score Updates
+-- Run this SQL in your Supabase SQL Editor so the desktop app receives score
+-- changes as they happen instead of polling the events table every 500 ms
+
+-- Publish events row changes to Supabase Realtime
+-- (skip if the table was already added for audio signaling)
+DO $$
+BEGIN
+    IF NOT EXISTS (
+        SELECT 1 FROM pg_publication_tables
+        WHERE pubname = 'supabase_realtime' AND schemaname = 'public' AND tablename = 'events'
+    ) THEN
+        ALTER PUBLICATION supabase_realtime ADD TABLE events;
+    END IF;
+END $$;
+
+-- Without this step the app still works, but only sees other devices' changes
+-- through its slow background check (every 10 seconds).
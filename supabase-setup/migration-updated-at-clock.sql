@@ -0,0 +1,19 @@
+-- FTC Stream Scorer - Database Migration for Ordered updated_at Stamps
+-- Run this SQL in your Supabase SQL Editor so events.updated_at always grows
+-- The app fetches only rows with updated_at newer than the last one it saw.
+-- NOW() is the time the transaction started, so when two scorers write the same
+-- row at once, the write that waited for the row lock can commit with an older
+-- stamp than the one before it, and that change is skipped until the next write.
+-- clock_timestamp() is read when the trigger runs, after the row lock is taken,
+-- so every write to a row is stamped later than the previous one.
+
+CREATE OR REPLACE FUNCTION update_updated_at_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.updated_at = clock_timestamp();
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+-- Without this step the app still catches such changes, but only through its
+-- unfiltered fetch every few seconds.
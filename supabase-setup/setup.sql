@@ -191,10 +191,11 @@ CREATE POLICY "Allow anonymous delete match_records" ON match_records
     FOR DELETE USING (true);
 
 -- Function to auto-update the updated_at timestamp
+-- clock_timestamp(), not NOW(): it is read after the row lock, so a row's stamps only grow
 CREATE OR REPLACE FUNCTION update_updated_at_column()
 RETURNS TRIGGER AS $$
 BEGIN
-    NEW.updated_at = NOW();
+    NEW.updated_at = clock_timestamp();
     RETURN NEW;
 END;
 $$ language 'plpgsql';